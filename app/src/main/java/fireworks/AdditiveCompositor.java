@@ -0,0 +1,253 @@
+package fireworks;
+
+import java.awt.image.BufferedImage; // the framebuffer and the glow sprites
+import java.awt.image.DataBufferInt; // the framebuffer's pixels
+
+import java.util.Arrays; // clearing the frame
+import java.util.HashMap; // glow light maps by key
+
+/**
+ * AdditiveCompositor class:
+ * - draws glows and sparks straight into the int[] pixels of a TYPE_INT_RGB image with additive blending,
+ *   then the whole thing is drawn once with a single drawImage
+ * - light adds up and saturates at white instead of being alpha blended, so overlapping sparks and glows
+ *   get brighter and more vibrant, like real light does
+ * - each trail segment is a line as wide as its Java2D stroke: a run of short spans across the line,
+ *   one per pixel along it, so no pixel is lit twice by the same segment; the core is white and the glow,
+ *   three times as wide, is the spark's color, same as TrailBatch draws them
+ * - glows come from the same baked sprites as the Java2D path, turned into premultiplied light once per sprite
+ * - no antialiasing; touching the pixel array also stops Java2D from caching the image in video memory,
+ *   which doesn't matter since it changes every frame
+ * - with bloom, trails are drawn once: the white core into the frame and the spark's color into a bright buffer,
+ *   and Bloom blurs that into the glow afterwards, instead of every segment drawing a wide glow line of its own
+ * - turned on with -Dfireworks.additive=true (or -Dfireworks.bloom=true); one per scene, only used from its painting thread
+ */
+class AdditiveCompositor implements TrailSink {
+    // the framebuffer and its pixels, remade when the picture changes size
+    private BufferedImage image;
+    private int[] pixels;
+    private int width;
+    private int height;
+
+    // glow post-process and its source, null without bloom
+    private final Bloom bloom;
+    private int[] bright;
+
+    // light of each glow sprite, premultiplied 0xRRGGBB, by Firework.glowKey
+    private final HashMap<String, int[]> glowLight = new HashMap<>();
+
+    // trail segment half widths by position, for the current trail length and scale
+    private int[] coreRadius = new int[0];
+    private int[] glowRadius = new int[0];
+    private double radiusScale = 1;
+
+    // color of the spark whose trail is being added
+    private int sparkRed;
+    private int sparkGreen;
+    private int sparkBlue;
+
+    /**
+     * constructor of AdditiveCompositor class:
+     * - with bloom, spark glows come from a Bloom pass instead of wide glow lines
+     */
+    AdditiveCompositor(boolean bloom) {
+        this.bloom = bloom ? new Bloom() : null;
+    } // end of AdditiveCompositor class constructor
+
+    /**
+     * begin():
+     * - starts a width x height frame filled with background (0xRRGGBB)
+     */
+    void begin(int width, int height, int background) {
+        if (image == null || width != this.width || height != this.height) {
+            image = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            this.width = image.getWidth();
+            this.height = image.getHeight();
+            bright = bloom != null ? new int[pixels.length] : null;
+        }
+        Arrays.fill(pixels, background & 0xFFFFFF);
+        if (bright != null) {
+            Arrays.fill(bright, 0);
+        }
+    } // end of begin() method
+
+    /**
+     * finish():
+     * - runs the bloom pass, if there is one; call it after the last spark and before image()
+     */
+    void finish() {
+        if (bloom != null) {
+            bloom.apply(bright, pixels, width, height);
+        }
+    } // end of finish() method
+
+    /**
+     * image():
+     * - the finished frame, to draw with one drawImage
+     */
+    BufferedImage image() {
+        return image;
+    }
+
+    /**
+     * addGlow():
+     * - adds firework's glow sprite at brightness (0 to 1) with its top left corner at (atX, atY) in the frame
+     *   (the firework's position, scaled to the picture)
+     */
+    void addGlow(Firework firework, BufferedImage sprite, int atX, int atY, double brightness) {
+        int[] light = glowLight.get(firework.glowKey);
+        if (light == null) {
+            light = light(sprite);
+            glowLight.put(firework.glowKey, light);
+        }
+        int level = (int)Math.round(Math.max(0, Math.min(brightness, 1))*256);
+        if (level == 0) {
+            return;
+        }
+
+        int spriteWidth = sprite.getWidth();
+        int spriteHeight = sprite.getHeight();
+        int left = Math.max(0, atX);
+        int right = Math.min(width, atX + spriteWidth);
+        int top = Math.max(0, atY);
+        int bottom = Math.min(height, atY + spriteHeight);
+        for (int y = top; y < bottom; y++) {
+            int row = y*width;
+            int spriteRow = (y - atY)*spriteWidth - atX;
+            for (int x = left; x < right; x++) {
+                int add = light[spriteRow + x];
+                if (add != 0) {
+                    addPixel(pixels, row + x, ((add >> 16) & 0xFF)*level >> 8, ((add >> 8) & 0xFF)*level >> 8, (add & 0xFF)*level >> 8);
+                }
+            }
+        }
+    } // end of addGlow() method
+
+    /**
+     * clearGlows():
+     * - forgets every glow's light, for when the sprites are baked again at another size
+     */
+    void clearGlows() {
+        glowLight.clear();
+    }
+
+    /**
+     * light():
+     * - a sprite's pixels as light to add: each color times its alpha
+     */
+    private static int[] light(BufferedImage sprite) {
+        int[] argb = sprite.getRGB(0, 0, sprite.getWidth(), sprite.getHeight(), null, 0, sprite.getWidth());
+        for (int i = 0; i < argb.length; i++) {
+            int alpha = argb[i] >>> 24;
+            int red = ((argb[i] >> 16) & 0xFF)*alpha/255;
+            int green = ((argb[i] >> 8) & 0xFF)*alpha/255;
+            int blue = (argb[i] & 0xFF)*alpha/255;
+            argb[i] = (red << 16) | (green << 8) | blue;
+        }
+        return argb;
+    } // end of light() method
+
+    /**
+     * useSpark():
+     * - the next segments belong to a spark of color rgb (0xRRGGBB) whose trail has trailLength points,
+     *   in a picture drawn scale pixels per world unit, so every segment is scale times as wide
+     */
+    void useSpark(int rgb, int trailLength, double scale) {
+        sparkRed = (rgb >> 16) & 0xFF;
+        sparkGreen = (rgb >> 8) & 0xFF;
+        sparkBlue = rgb & 0xFF;
+
+        if (coreRadius.length != trailLength-1 || scale != radiusScale) {
+            coreRadius = new int[trailLength-1];
+            glowRadius = new int[trailLength-1];
+            radiusScale = scale;
+            for (int j = 0; j < trailLength-1; j++) {
+                // same taper as TrailPalette: 0.5 at the tail up to 5.5 at the head, glow three times as wide
+                double strokeWidth = (0.5 + 5*j/(double)(trailLength-1))*scale;
+                coreRadius[j] = (int)(strokeWidth/2);
+                glowRadius[j] = (int)(strokeWidth*TrailPalette.GLOW_WIDTH/2);
+            }
+        }
+    } // end of useSpark() method
+
+    /**
+     * add():
+     * - adds segment j of the current spark's trail: its colored glow, then its white core
+     * - with bloom there's no glow line; the core's color goes into the bright buffer for Bloom to spread
+     */
+    @Override
+    public void add(int j, int x1, int y1, int x2, int y2, float alpha) {
+        int core = TrailPalette.coreLevel(alpha);
+        if (bloom != null) {
+            if (core > 0) {
+                line(pixels, x1, y1, x2, y2, coreRadius[j], core, core, core);
+                line(bright, x1, y1, x2, y2, coreRadius[j], sparkRed*core/255, sparkGreen*core/255, sparkBlue*core/255);
+            }
+            return;
+        }
+
+        int glow = TrailPalette.glowLevel(alpha);
+        if (glow > 0) {
+            line(pixels, x1, y1, x2, y2, glowRadius[j], sparkRed*glow/255, sparkGreen*glow/255, sparkBlue*glow/255);
+        }
+        if (core > 0) {
+            line(pixels, x1, y1, x2, y2, coreRadius[j], core, core, core);
+        }
+    } // end of add() method
+
+    /**
+     * line():
+     * - adds (red, green, blue) to target along a line radius pixels to each side, leaving out its last point
+     *   so the next segment of the trail doesn't light it again
+     * - walks along the longer direction and lights a span across the line at every step
+     */
+    private void line(int[] target, int x1, int y1, int x2, int y2, int radius, int red, int green, int blue) {
+        int dx = x2 - x1;
+        int dy = y2 - y1;
+        int steps = Math.max(Math.abs(dx), Math.abs(dy));
+        if (steps == 0) {
+            steps = 1; // a dot, still draw it once
+        }
+        boolean alongX = Math.abs(dx) >= Math.abs(dy);
+        for (int s = 0; s < steps; s++) {
+            int x = x1 + (int)Math.round(dx*(double)s/steps);
+            int y = y1 + (int)Math.round(dy*(double)s/steps);
+            if (alongX) {
+                span(target, x, x, y - radius, y + radius, red, green, blue);
+            }
+            else {
+                span(target, x - radius, x + radius, y, y, red, green, blue);
+            }
+        }
+    } // end of line() method
+
+    /**
+     * span():
+     * - adds (red, green, blue) to every pixel of target from (left, top) to (right, bottom), clipped to the frame
+     */
+    private void span(int[] target, int left, int right, int top, int bottom, int red, int green, int blue) {
+        left = Math.max(left, 0);
+        right = Math.min(right, width-1);
+        top = Math.max(top, 0);
+        bottom = Math.min(bottom, height-1);
+        for (int y = top; y <= bottom; y++) {
+            int row = y*width;
+            for (int x = left; x <= right; x++) {
+                addPixel(target, row + x, red, green, blue);
+            }
+        }
+    } // end of span() method
+
+    /**
+     * addPixel():
+     * - adds light to pixel i of target, each channel stopping at 255
+     */
+    private static void addPixel(int[] target, int i, int red, int green, int blue) {
+        int pixel = target[i];
+        int r = Math.min(((pixel >> 16) & 0xFF) + red, 255);
+        int g = Math.min(((pixel >> 8) & 0xFF) + green, 255);
+        int b = Math.min((pixel & 0xFF) + blue, 255);
+        target[i] = (r << 16) | (g << 8) | b;
+    } // end of addPixel() method
+} // end of AdditiveCompositor class
@@ -0,0 +1,108 @@
+package fireworks;
+
+import java.lang.management.ManagementFactory; // access to the JVM's thread bean
+
+/**
+ * AllocationCounter class:
+ * - counts how many bytes the current thread allocates between begin() and end()
+ * - frameDone() closes out one frame; every reportEvery frames the average is printed to stderr,
+ *   so it never ends up in frames exported to stdout
+ * - only runs when the program is started with -Dfireworks.allocStats=true
+ */
+class AllocationCounter {
+    // turn on with -Dfireworks.allocStats=true
+    static final boolean ENABLED = Boolean.getBoolean("fireworks.allocStats");
+
+    // HotSpot's thread bean can report per-thread allocation; null on JVMs that can't
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    // what is being measured, used in the report
+    private final String name;
+
+    // how many frames to average before printing
+    private final int reportEvery;
+
+    // bytes allocated since the last begin()
+    private long start;
+
+    // bytes allocated so far in the current frame and over the current report window
+    private long frameBytes;
+    private long windowBytes;
+    private int windowFrames;
+
+    // last completed frame, kept for anyone who wants the raw number
+    private long lastFrameBytes;
+
+    /**
+     * constructor of AllocationCounter class:
+     * - name shows up in the printed report
+     */
+    AllocationCounter(String name, int reportEvery) {
+        this.name = name;
+        this.reportEvery = reportEvery;
+    } // end of AllocationCounter class constructor
+
+    /**
+     * begin():
+     * - starts measuring; can be called several times per frame
+     */
+    void begin() {
+        if (THREADS != null) {
+            start = THREADS.getCurrentThreadAllocatedBytes();
+        }
+    }
+
+    /**
+     * end():
+     * - stops measuring and adds what was allocated to the current frame
+     */
+    void end() {
+        if (THREADS != null) {
+            frameBytes += THREADS.getCurrentThreadAllocatedBytes() - start;
+        }
+    }
+
+    /**
+     * frameDone():
+     * - finishes the current frame and prints the average once the window is full
+     */
+    void frameDone() {
+        if (THREADS == null) {
+            return;
+        }
+        lastFrameBytes = frameBytes;
+        windowBytes += frameBytes;
+        windowFrames++;
+        frameBytes = 0;
+
+        if (windowFrames == reportEvery) {
+            System.err.println(name + ": " + (windowBytes/windowFrames) + " bytes allocated per frame (last " + windowFrames + " frames)");
+            windowBytes = 0;
+            windowFrames = 0;
+        }
+    } // end of frameDone() method
+
+    /**
+     * lastFrameBytes():
+     * - bytes allocated during the last finished frame
+     */
+    long lastFrameBytes() {
+        return lastFrameBytes;
+    }
+
+    /**
+     * threadBean():
+     * - returns the thread bean if allocation counting is enabled and supported, otherwise null
+     */
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (!ENABLED || !(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!bean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+        return bean;
+    } // end of threadBean() method
+} // end of AllocationCounter class
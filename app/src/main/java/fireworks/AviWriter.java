@@ -0,0 +1,243 @@
+package fireworks;
+
+import java.io.Closeable; // finishing the file
+import java.io.IOException; // writing can fail
+
+import java.nio.ByteBuffer; // chunk headers and the index
+import java.nio.ByteOrder; // AVI numbers are little-endian
+import java.nio.channels.FileChannel; // appending frames and patching the header at the end
+import java.nio.file.Path; // where the video goes
+import java.nio.file.StandardOpenOption; // creating or replacing the file
+
+import java.util.Arrays; // growing the index
+
+/**
+ * AviWriter class:
+ * - writes a Motion-JPEG AVI: every frame is its own JPEG, which any player (and ffmpeg) can read
+ * - frames are appended to a FileChannel as they come; the header is written first with the counts left empty,
+ *   and close() adds the index and fills them in, so nothing but the index has to stay in memory
+ * - the index is 8 bytes per frame (about 144 KB for 10 minutes); the file has to stay under 2 GB,
+ *   the most a plain AVI 1.0 can hold
+ * - if writing goes wrong, abort() closes the file without finishing it
+ * - only used from one thread
+ */
+class AviWriter implements Closeable {
+    // largest file a plain AVI can be, since offsets and sizes are 32-bit and some players read them signed
+    static final long MAX_BYTES = Integer.MAX_VALUE;
+
+    // AVIF_HASINDEX and AVIIF_KEYFRAME: there's an idx1 index, and every JPEG frame stands on its own
+    private static final int HAS_INDEX = 0x10;
+    private static final int KEYFRAME = 0x10;
+
+    // where the numbers only known at the end are, patched by close()
+    private static final int RIFF_SIZE_AT = 4;
+    private static final int TOTAL_FRAMES_AT = 48;
+    private static final int STREAM_LENGTH_AT = 140;
+    private static final int MOVI_SIZE_AT = 216;
+
+    // where the 'movi' list's data starts; index offsets count from its 'movi' tag at 220
+    private static final int MOVI_DATA_AT = 224;
+    private static final int MOVI_TAG_AT = 220;
+
+    // the file
+    private final FileChannel channel;
+
+    // each frame's offset from the 'movi' tag and its size, in frame order
+    private int[] offsets = new int[1024];
+    private int[] sizes = new int[1024];
+    private int frames;
+
+    // reused for every chunk header and padding byte, so writing a frame doesn't allocate them
+    private final ByteBuffer chunkHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer padding = ByteBuffer.allocate(1);
+
+    /**
+     * constructor of AviWriter class:
+     * - creates (or replaces) file and writes the header for width x height frames, one every frameNanos
+     */
+    AviWriter(Path file, int width, int height, long frameNanos) throws IOException {
+        if (width <= 0 || height <= 0 || frameNanos <= 0) {
+            throw new IllegalArgumentException("bad video size or frame time: " + width + "x" + height + ", " + frameNanos + " ns");
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            channel.write(header(width, height, frameNanos));
+        }
+        catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    } // end of AviWriter class constructor
+
+    /**
+     * header():
+     * - everything before the first frame: RIFF 'AVI ', the 'hdrl' list with one MJPG video stream, and the
+     *   start of the 'movi' list; the counts and sizes are 0 until close()
+     */
+    private static ByteBuffer header(int width, int height, long frameNanos) {
+        ByteBuffer b = ByteBuffer.allocate(MOVI_DATA_AT).order(ByteOrder.LITTLE_ENDIAN);
+        int microsPerFrame = (int)(frameNanos/1000);
+
+        tag(b, "RIFF").putInt(0); tag(b, "AVI ");
+        tag(b, "LIST").putInt(192); tag(b, "hdrl");
+
+        // main header
+        tag(b, "avih").putInt(56);
+        b.putInt(microsPerFrame);
+        b.putInt(0); // max bytes per second, not needed
+        b.putInt(0); // padding granularity
+        b.putInt(HAS_INDEX);
+        b.putInt(0); // total frames, patched
+        b.putInt(0); // initial frames
+        b.putInt(1); // streams
+        b.putInt(0); // suggested buffer size, players work it out
+        b.putInt(width).putInt(height);
+        b.putInt(0).putInt(0).putInt(0).putInt(0); // reserved
+
+        // the one video stream
+        tag(b, "LIST").putInt(116); tag(b, "strl");
+        tag(b, "strh").putInt(56);
+        tag(b, "vids"); tag(b, "MJPG");
+        b.putInt(0); // flags
+        b.putShort((short)0).putShort((short)0); // priority, language
+        b.putInt(0); // initial frames
+        b.putInt(microsPerFrame).putInt(1_000_000); // scale and rate: rate/scale frames per second
+        b.putInt(0); // start
+        b.putInt(0); // length in frames, patched
+        b.putInt(0); // suggested buffer size
+        b.putInt(-1); // quality, default
+        b.putInt(0); // sample size, frames vary
+        b.putShort((short)0).putShort((short)0).putShort((short)width).putShort((short)height); // frame rectangle
+
+        // frame format: a BITMAPINFOHEADER saying MJPG
+        tag(b, "strf").putInt(40);
+        b.putInt(40).putInt(width).putInt(height);
+        b.putShort((short)1).putShort((short)24); // planes, bits per pixel
+        tag(b, "MJPG");
+        b.putInt(width*height*3);
+        b.putInt(0).putInt(0).putInt(0).putInt(0); // resolution and palette, unused
+
+        tag(b, "LIST").putInt(0); tag(b, "movi"); // size patched
+        b.flip();
+        return b;
+    } // end of header() method
+
+    /**
+     * tag():
+     * - puts a four letter chunk id
+     */
+    private static ByteBuffer tag(ByteBuffer b, String fourCc) {
+        for (int i = 0; i < 4; i++) {
+            b.put((byte)fourCc.charAt(i));
+        }
+        return b;
+    } // end of tag() method
+
+    /**
+     * writeFrame():
+     * - appends one frame: the first length bytes of jpeg, a whole JPEG image
+     */
+    void writeFrame(byte[] jpeg, int length) throws IOException {
+        long at = channel.position();
+        long end = at + 8 + length + (length & 1);
+        if (end + 16L*(frames+1) > MAX_BYTES) {
+            throw new IOException("video would be over 2 GB, the most an AVI can hold; export fewer frames");
+        }
+
+        if (frames == offsets.length) {
+            offsets = Arrays.copyOf(offsets, frames*2);
+            sizes = Arrays.copyOf(sizes, frames*2);
+        }
+        offsets[frames] = (int)(at - MOVI_TAG_AT);
+        sizes[frames] = length;
+        frames++;
+
+        chunkHeader.clear();
+        tag(chunkHeader, "00dc").putInt(length); // stream 0, compressed video
+        chunkHeader.flip();
+        writeFully(chunkHeader);
+        writeFully(ByteBuffer.wrap(jpeg, 0, length));
+        if ((length & 1) != 0) {
+            padding.clear();
+            writeFully(padding); // chunks start on even offsets
+        }
+    } // end of writeFrame() method
+
+    /**
+     * frames():
+     * - how many frames were written so far
+     */
+    int frames() {
+        return frames;
+    }
+
+    /**
+     * close():
+     * - writes the index, fills in the counts and sizes, and closes the file
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long moviEnd = channel.position();
+
+            // idx1: one 16 byte entry per frame, written a few thousand at a time
+            ByteBuffer index = ByteBuffer.allocate(16*1024).order(ByteOrder.LITTLE_ENDIAN);
+            tag(index, "idx1").putInt(16*frames);
+            for (int f = 0; f < frames; f++) {
+                if (index.remaining() < 16) {
+                    index.flip();
+                    writeFully(index);
+                    index.clear();
+                }
+                tag(index, "00dc").putInt(KEYFRAME).putInt(offsets[f]).putInt(sizes[f]);
+            }
+            index.flip();
+            writeFully(index);
+            long fileEnd = channel.position();
+
+            patch(RIFF_SIZE_AT, (int)(fileEnd - 8));
+            patch(TOTAL_FRAMES_AT, frames);
+            patch(STREAM_LENGTH_AT, frames);
+            patch(MOVI_SIZE_AT, (int)(moviEnd - MOVI_TAG_AT));
+        }
+        finally {
+            channel.close();
+        }
+    } // end of close() method
+
+    /**
+     * abort():
+     * - closes the file as it is, without an index or counts, because cause stopped the frames coming;
+     *   a failure to close is added to cause rather than thrown in its place
+     */
+    void abort(Throwable cause) {
+        try {
+            channel.close();
+        }
+        catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    } // end of abort() method
+
+    /**
+     * patch():
+     * - overwrites the number at position without moving where the next write goes
+     */
+    private void patch(long position, int value) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value);
+        b.flip();
+        while (b.hasRemaining()) {
+            channel.write(b, position + b.position());
+        }
+    } // end of patch() method
+
+    /**
+     * writeFully():
+     * - writes everything left in b; a FileChannel may take less than all of it at once
+     */
+    private void writeFully(ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) {
+            channel.write(b);
+        }
+    } // end of writeFully() method
+} // end of AviWriter class
@@ -0,0 +1,280 @@
+package fireworks;
+
+import java.util.Arrays; // clearing a row before adding into it
+import java.util.concurrent.RecursiveAction; // splitting rows between threads
+
+/**
+ * Bloom class:
+ * - the glow around sparks as a post-process: sparks are drawn once into a bright buffer, which is shrunk
+ *   to 1/DOWNSAMPLE of the size each way, blurred, and added back over the frame, stretched smoothly to full size
+ * - the blur is a box blur done across then down (separable), PASSES times, which comes out close to a Gaussian
+ * - costs the same however many sparks there are: it only depends on the size of the picture
+ * - every stage works a band of rows at a time; bands are split over the ForkJoinPool the caller runs in
+ *   (the common pool from a plain thread), so the blur uses every core
+ * - one per AdditiveCompositor, only used from its painting thread
+ */
+class Bloom {
+    // how much smaller the blurred buffer is, each way
+    static final int DOWNSAMPLE = 4;
+
+    // box blur reach in blurred pixels, so about RADIUS*DOWNSAMPLE real pixels
+    static final int RADIUS = 2;
+
+    // box blurs in a row; 2 already looks round
+    static final int PASSES = 2;
+
+    // how strongly the blurred light is added back, in 1/256ths
+    static final int STRENGTH = 3*256;
+
+    // rows in a band that's not split further
+    static final int BAND_ROWS = 8;
+
+    // stages, for Band
+    private static final int SHRINK = 0;
+    private static final int BLUR_ACROSS = 1;
+    private static final int BLUR_DOWN = 2;
+    private static final int STRETCH_DOWN = 3;
+    private static final int ADD_BACK = 4;
+
+    // this frame's buffers and sizes
+    private int[] bright;
+    private int[] frame;
+    private int width;
+    private int height;
+
+    // shrunk buffer, one array per channel, and room for a blur pass
+    private int smallWidth;
+    private int smallHeight;
+    private int[][] small = new int[3][0];
+    private int[][] scratch = new int[3][0];
+
+    // blurred buffer stretched to full height but not yet full width, packed 0xRRGGBB
+    private int[] stretched = new int[0];
+
+    // for stretching back: which blurred column is left of each frame column, and how far toward the next (0 to 256)
+    private int[] column = new int[0];
+    private int[] columnWeight = new int[0];
+
+    /**
+     * Band class:
+     * - one stage for rows from (inclusive) to to (exclusive), split in half until it's small
+     */
+    private class Band extends RecursiveAction {
+        final int stage;
+        final int from;
+        final int to;
+
+        Band(int stage, int from, int to) {
+            this.stage = stage;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BAND_ROWS) {
+                run(stage, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Band(stage, from, middle), new Band(stage, middle, to));
+        }
+    } // end of Band class
+
+    /**
+     * apply():
+     * - blurs bright (width x height, 0xRRGGBB) and adds it to frame, each channel stopping at 255
+     */
+    void apply(int[] bright, int[] frame, int width, int height) {
+        this.bright = bright;
+        this.frame = frame;
+        resize(width, height);
+
+        new Band(SHRINK, 0, smallHeight).invoke();
+        for (int pass = 0; pass < PASSES; pass++) {
+            new Band(BLUR_ACROSS, 0, smallHeight).invoke(); // small -> scratch
+            new Band(BLUR_DOWN, 0, smallHeight).invoke(); // scratch -> small
+        }
+        new Band(STRETCH_DOWN, 0, height).invoke();
+        new Band(ADD_BACK, 0, height).invoke();
+    } // end of apply() method
+
+    /**
+     * resize():
+     * - makes the buffers fit a width x height frame, only when the size changes
+     */
+    private void resize(int width, int height) {
+        if (width == this.width && height == this.height) {
+            return;
+        }
+        this.width = width;
+        this.height = height;
+        smallWidth = (width + DOWNSAMPLE-1)/DOWNSAMPLE;
+        smallHeight = (height + DOWNSAMPLE-1)/DOWNSAMPLE;
+        for (int c = 0; c < 3; c++) {
+            small[c] = new int[smallWidth*smallHeight];
+            scratch[c] = new int[smallWidth*smallHeight];
+        }
+        stretched = new int[smallWidth*height];
+
+        column = new int[width];
+        columnWeight = new int[width];
+        for (int x = 0; x < width; x++) {
+            double position = Math.max(0, (x + 0.5)/DOWNSAMPLE - 0.5); // center of pixel x, in blurred pixels
+            column[x] = Math.min((int)position, smallWidth-1);
+            columnWeight[x] = column[x] == smallWidth-1 ? 0 : (int)((position - column[x])*256);
+        }
+    } // end of resize() method
+
+    /**
+     * run():
+     * - one stage for rows from to to
+     */
+    private void run(int stage, int from, int to) {
+        for (int y = from; y < to; y++) {
+            if (stage == SHRINK) {
+                shrinkRow(y);
+            }
+            else if (stage == BLUR_ACROSS) {
+                for (int c = 0; c < 3; c++) {
+                    blurAcross(small[c], scratch[c], y);
+                }
+            }
+            else if (stage == BLUR_DOWN) {
+                for (int c = 0; c < 3; c++) {
+                    blurDown(scratch[c], small[c], y);
+                }
+            }
+            else if (stage == STRETCH_DOWN) {
+                stretchRow(y);
+            }
+            else {
+                addBackRow(y);
+            }
+        }
+    } // end of run() method
+
+    /**
+     * shrinkRow():
+     * - blurred row y is the average of each DOWNSAMPLE x DOWNSAMPLE block of the bright buffer
+     */
+    private void shrinkRow(int y) {
+        int top = y*DOWNSAMPLE;
+        int bottom = Math.min(top + DOWNSAMPLE, height);
+        for (int x = 0; x < smallWidth; x++) {
+            int left = x*DOWNSAMPLE;
+            int right = Math.min(left + DOWNSAMPLE, width);
+            int red = 0;
+            int green = 0;
+            int blue = 0;
+            for (int by = top; by < bottom; by++) {
+                int row = by*width;
+                for (int bx = left; bx < right; bx++) {
+                    int pixel = bright[row + bx];
+                    red += (pixel >> 16) & 0xFF;
+                    green += (pixel >> 8) & 0xFF;
+                    blue += pixel & 0xFF;
+                }
+            }
+            int i = y*smallWidth + x;
+            small[0][i] = red/(DOWNSAMPLE*DOWNSAMPLE);
+            small[1][i] = green/(DOWNSAMPLE*DOWNSAMPLE);
+            small[2][i] = blue/(DOWNSAMPLE*DOWNSAMPLE);
+        }
+    } // end of shrinkRow() method
+
+    /**
+     * blurAcross():
+     * - box blurs row y of from into to, with a running sum; pixels past the edge count as black
+     */
+    private void blurAcross(int[] from, int[] to, int y) {
+        int row = y*smallWidth;
+        int sum = 0;
+        for (int x = 0; x < RADIUS && x < smallWidth; x++) {
+            sum += from[row + x];
+        }
+        for (int x = 0; x < smallWidth; x++) {
+            if (x + RADIUS < smallWidth) {
+                sum += from[row + x + RADIUS];
+            }
+            if (x - RADIUS - 1 >= 0) {
+                sum -= from[row + x - RADIUS - 1];
+            }
+            to[row + x] = sum/(2*RADIUS + 1);
+        }
+    } // end of blurAcross() method
+
+    /**
+     * blurDown():
+     * - box blurs row y of to from the rows around it in from
+     * - adds whole rows at a time, so every read goes along a row instead of jumping down a column
+     */
+    private void blurDown(int[] from, int[] to, int y) {
+        int top = Math.max(0, y - RADIUS);
+        int bottom = Math.min(smallHeight-1, y + RADIUS);
+        int row = y*smallWidth;
+        Arrays.fill(to, row, row + smallWidth, 0);
+        for (int by = top; by <= bottom; by++) {
+            int source = by*smallWidth;
+            for (int x = 0; x < smallWidth; x++) {
+                to[row + x] += from[source + x];
+            }
+        }
+        for (int x = 0; x < smallWidth; x++) {
+            to[row + x] /= 2*RADIUS + 1;
+        }
+    } // end of blurDown() method
+
+    /**
+     * stretchRow():
+     * - the blurred buffer at full-size row y: the two blurred rows around it, mixed by distance
+     */
+    private void stretchRow(int y) {
+        double position = Math.max(0, (y + 0.5)/DOWNSAMPLE - 0.5);
+        int smallY = Math.min((int)position, smallHeight-1);
+        int nextY = Math.min(smallY + 1, smallHeight-1);
+        int weight = (int)((position - smallY)*256);
+        int above = smallY*smallWidth;
+        int below = nextY*smallWidth;
+
+        int row = y*smallWidth;
+        for (int x = 0; x < smallWidth; x++) {
+            int red = (small[0][above + x]*(256 - weight) + small[0][below + x]*weight) >> 8;
+            int green = (small[1][above + x]*(256 - weight) + small[1][below + x]*weight) >> 8;
+            int blue = (small[2][above + x]*(256 - weight) + small[2][below + x]*weight) >> 8;
+            stretched[row + x] = (red << 16) | (green << 8) | blue;
+        }
+    } // end of stretchRow() method
+
+    /**
+     * addBackRow():
+     * - adds the light to frame row y, stretched across to full width, times STRENGTH
+     * - dark parts of the blurred buffer are skipped, which is most of the sky
+     */
+    private void addBackRow(int y) {
+        int smallRow = y*smallWidth;
+        int row = y*width;
+        for (int x = 0; x < width; x++) {
+            int left = stretched[smallRow + column[x]];
+            int right = stretched[smallRow + Math.min(column[x] + 1, smallWidth-1)];
+            if ((left | right) == 0) {
+                continue; // no light here
+            }
+            int weight = columnWeight[x];
+
+            int pixel = frame[row + x];
+            int red = ((pixel >> 16) & 0xFF) + mix(left >> 16, right >> 16, weight);
+            int green = ((pixel >> 8) & 0xFF) + mix((left >> 8) & 0xFF, (right >> 8) & 0xFF, weight);
+            int blue = (pixel & 0xFF) + mix(left & 0xFF, right & 0xFF, weight);
+            frame[row + x] = (Math.min(red, 255) << 16) | (Math.min(green, 255) << 8) | Math.min(blue, 255);
+        }
+    } // end of addBackRow() method
+
+    /**
+     * mix():
+     * - weight/256 of the way from a to b, times STRENGTH
+     */
+    private static int mix(int a, int b, int weight) {
+        return ((a*(256 - weight) + b*weight) >> 8)*STRENGTH >> 8;
+    }
+} // end of Bloom class
@@ -0,0 +1,34 @@
+package fireworks;
+
+import java.util.Locale; // pattern names in any case
+
+/**
+ * BurstPattern enum:
+ * - the shape a shell's sparks fly out in
+ */
+enum BurstPattern {
+    // random directions and speeds, a full round burst (random scatter)
+    PEONY,
+
+    // evenly spaced directions at one speed, a flat ring
+    RING,
+
+    // evenly spread over a ball, so the sparks bunch up toward the edge of the circle
+    SPHERE,
+
+    // a slow sphere thrown upward, so the sparks droop like willow branches
+    WILLOW;
+
+    /**
+     * parse():
+     * - the pattern called name, in any case, e.g. "peony"
+     */
+    static BurstPattern parse(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown burst pattern: " + name + " (use peony, ring, sphere or willow)");
+        }
+    } // end of parse() method
+} // end of BurstPattern enum
@@ -0,0 +1,97 @@
+package fireworks;
+
+import java.util.HashMap; // templates already made
+import java.util.Map; // templates by pattern and size
+import java.util.SplittableRandom; // scatter directions
+
+/**
+ * BurstTemplate class:
+ * - the starting velocities of one burst pattern, worked out once so spawning a shell is bulk copying
+ *   instead of a cos, a sin and a couple of random numbers per spark
+ * - velocities are for a firework with maxRadius 55; SparkPool.spawnBurst() scales and rotates them per launch,
+ *   then adds lift, which always points up
+ * - ring, sphere and willow have exactly one velocity per spark, in order;
+ *   peony (random scatter) has at least SCATTER_SIZE random ones, and each launch starts at a random place in them,
+ *   so peonies don't all look the same
+ * - templates never change once made and are shared by every simulation; of() makes each one only once
+ */
+class BurstTemplate {
+    // fewest velocities a scatter template has, so launches can start at different places
+    static final int SCATTER_SIZE = 4096;
+
+    // scatter velocities are always the same, whatever seed the show plays with
+    static final long SCATTER_SEED = 0x5CA77E2L;
+
+    // templates made so far, by pattern and spark count
+    private static final Map<Long, BurstTemplate> TEMPLATES = new HashMap<>();
+
+    // what it is
+    final BurstPattern pattern;
+    final int sparks;
+
+    // starting velocities, for a firework with maxRadius 55
+    final double[] xVelocity;
+    final double[] yVelocity;
+
+    // upward push added to every spark after rotating (negative is up)
+    final double lift;
+
+    /**
+     * constructor of BurstTemplate class:
+     * - works out the velocities of sparks sparks in pattern
+     */
+    private BurstTemplate(BurstPattern pattern, int sparks) {
+        this.pattern = pattern;
+        this.sparks = sparks;
+        int size = pattern == BurstPattern.PEONY ? Math.max(SCATTER_SIZE, 2*sparks) : sparks;
+        xVelocity = new double[size];
+        yVelocity = new double[size];
+        lift = pattern == BurstPattern.WILLOW ? -0.9 : 0; // willows are thrown upward
+
+        SplittableRandom random = new SplittableRandom(SCATTER_SEED);
+        for (int i = 0; i < size; i++) {
+            double angle;
+            double speed;
+            if (pattern == BurstPattern.RING) {
+                // evenly spaced, all at the same speed
+                angle = i*2*Math.PI/sparks;
+                speed = 1.75;
+            }
+            else if (pattern == BurstPattern.SPHERE || pattern == BurstPattern.WILLOW) {
+                // evenly spread over a ball (golden angle spiral), seen from the front: thickest at the edge
+                double z = 1 - (2*i + 1)/(double)sparks;
+                angle = i*Math.PI*(3 - Math.sqrt(5));
+                speed = Math.sqrt(1 - z*z)*1.75;
+                if (pattern == BurstPattern.WILLOW) {
+                    speed *= 0.6; // slower, so the sparks hang and droop like branches
+                }
+            }
+            else {
+                // random direction, random speed outward
+                angle = random.nextDouble()*2*Math.PI;
+                speed = 1 + random.nextDouble()*1.5;
+            }
+            xVelocity[i] = Math.cos(angle)*speed;
+            yVelocity[i] = Math.sin(angle)*speed;
+        }
+    } // end of BurstTemplate class constructor
+
+    /**
+     * of():
+     * - the template for sparks sparks in pattern, made the first time it's asked for
+     */
+    static synchronized BurstTemplate of(BurstPattern pattern, int sparks) {
+        if (sparks <= 0) {
+            throw new IllegalArgumentException("sparks has to be positive: " + sparks);
+        }
+        return TEMPLATES.computeIfAbsent(((long)pattern.ordinal() << 32) | sparks, key -> new BurstTemplate(pattern, sparks));
+    } // end of of() method
+
+    /**
+     * offsets():
+     * - how many different places a launch can start reading velocities from
+     */
+    int offsets() {
+        return xVelocity.length - sparks + 1;
+    }
+} // end of BurstTemplate class
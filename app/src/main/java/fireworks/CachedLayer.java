@@ -0,0 +1,126 @@
+package fireworks;
+
+import java.awt.AlphaComposite; // clearing the layer to fully transparent
+import java.awt.Graphics2D; // drawing the layer
+import java.awt.GraphicsConfiguration; // making images the screen can draw fast
+import java.awt.RenderingHints; // smoother graphics
+import java.awt.Transparency; // see-through images
+import java.awt.image.BufferedImage; // layer when there is no screen
+import java.awt.image.VolatileImage; // accelerated layer on screen
+
+import java.util.function.Consumer; // the code that draws the layer
+
+/**
+ * CachedLayer class:
+ * - a picture that never changes, drawn once into a translucent image and then copied with one drawImage
+ * - on screen it uses a compatible VolatileImage so the copy can be accelerated; the image is
+ *   redrawn only when the size or graphics configuration changes, or when the screen loses it
+ * - without a screen (headless, or before the panel is shown) it uses a BufferedImage instead
+ */
+class CachedLayer {
+    // draws the layer's content, with antialiasing already on
+    private final Consumer<Graphics2D> painter;
+
+    // the cached picture; only one of these is used at a time
+    private VolatileImage volatileImage;
+    private BufferedImage bufferedImage;
+
+    // the configuration the volatile image was made for
+    private GraphicsConfiguration config;
+
+    // how many times the layer has been drawn from scratch
+    private int renders = 0;
+
+    /**
+     * constructor of CachedLayer class:
+     * - painter is called whenever the cached picture has to be drawn again
+     */
+    CachedLayer(Consumer<Graphics2D> painter) {
+        this.painter = painter;
+    } // end of CachedLayer class constructor
+
+    /**
+     * draw():
+     * - copies the layer onto g2 at (0,0), redrawing the cache first if it's missing or out of date
+     * - gc is the configuration of whatever we're drawing onto, or null if there is none
+     */
+    void draw(Graphics2D g2, GraphicsConfiguration gc, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return; // nothing to draw into yet
+        }
+        if (gc == null) {
+            drawBuffered(g2, width, height);
+            return;
+        }
+        bufferedImage = null; // only one cache at a time
+
+        // the usual VolatileImage loop: its contents can be lost at any point, even while copying it
+        do {
+            if (volatileImage == null || config != gc
+                    || volatileImage.getWidth() != width || volatileImage.getHeight() != height) {
+                if (volatileImage != null) {
+                    volatileImage.flush(); // free the old video memory
+                }
+                volatileImage = gc.createCompatibleVolatileImage(width, height, Transparency.TRANSLUCENT);
+                config = gc;
+                render(volatileImage.createGraphics(), width, height);
+            }
+            else {
+                int status = volatileImage.validate(gc);
+                if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    volatileImage.flush();
+                    volatileImage = null; // make a new one next time around the loop
+                    continue;
+                }
+                if (status == VolatileImage.IMAGE_RESTORED) {
+                    render(volatileImage.createGraphics(), width, height); // contents were lost, draw them again
+                }
+            }
+            g2.drawImage(volatileImage, 0, 0, null);
+        } while (volatileImage == null || volatileImage.contentsLost());
+    } // end of draw() method
+
+    /**
+     * drawBuffered():
+     * - same as draw() but with a plain translucent BufferedImage, for when there is no screen
+     */
+    private void drawBuffered(Graphics2D g2, int width, int height) {
+        if (volatileImage != null) {
+            volatileImage.flush();
+            volatileImage = null;
+            config = null;
+        }
+        if (bufferedImage == null || bufferedImage.getWidth() != width || bufferedImage.getHeight() != height) {
+            bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            render(bufferedImage.createGraphics(), width, height);
+        }
+        g2.drawImage(bufferedImage, 0, 0, null);
+    } // end of drawBuffered() method
+
+    /**
+     * render():
+     * - clears the image to see-through, then lets the painter draw on it
+     */
+    private void render(Graphics2D g2, int width, int height) {
+        try {
+            g2.setComposite(AlphaComposite.Clear);
+            g2.fillRect(0, 0, width, height);
+            g2.setComposite(AlphaComposite.SrcOver);
+
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            painter.accept(g2);
+            renders++;
+        }
+        finally {
+            g2.dispose();
+        }
+    } // end of render() method
+
+    /**
+     * renders():
+     * - how many times the layer was drawn from scratch, should stay at 1 while nothing changes
+     */
+    int renders() {
+        return renders;
+    }
+} // end of CachedLayer class
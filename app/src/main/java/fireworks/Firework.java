@@ -0,0 +1,166 @@
+package fireworks;
+
+import java.awt.Color; // coloring the glow rings
+import java.awt.Graphics2D; // drawing the glow rings
+
+/**
+ * Firework class:
+ * - where one firework sits, how big it is, and its base color
+ * - the spark settings (burst size, brightened spark color, burst center) are picked
+ *   from the color and position once here, instead of every frame
+ * - when it goes off is up to the show (see Show), so the same firework can be launched any number of times
+ */
+class Firework {
+    // the size and position constants of the firework
+    final int x;
+    final int y;
+    final int width;
+    final int height;
+
+    // base firework color, used by the glow rings
+    final int red;
+    final int green;
+    final int blue;
+
+    // "left", "right", or "center" which affects where the burst center is
+    final String position;
+
+    // controls how big the sparks can travel
+    final double maxRadius;
+
+    // how many sparks a burst has, relative to size
+    final int sparkCount;
+
+    // brightened spark color
+    final int sparkRed;
+    final int sparkGreen;
+    final int sparkBlue;
+
+    // where the sparks burst from
+    final double centerX;
+    final double centerY;
+
+    // fireworks with the same glow key have identical glow rings and can share one glow sprite
+    final String glowKey;
+
+    /**
+     * constructor of Firework class:
+     * - stores the placement and color, then works out the spark settings
+     */
+    Firework(int x, int y, int width, int height, int red, int green, int blue, String position) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.red = red;
+        this.green = green;
+        this.blue = blue;
+        this.position = position;
+
+        // choose how big the firework is and the spark color based on color
+        if (green > red && green >= blue) {
+            maxRadius = width*0.5; // adjust the burst size
+
+            // brighten the spark colors
+            sparkRed = 180;
+            sparkGreen = 220;
+            sparkBlue = 190;
+        } // green firework
+        else if (blue > green && red > green) {
+            maxRadius = width*0.5;
+
+            sparkRed = 240;
+            sparkGreen = 180;
+            sparkBlue = 240;
+        } // pink/purple firework
+        else {
+            maxRadius = width*0.4;
+
+            sparkRed = 240;
+            sparkGreen = 220;
+            sparkBlue = 130;
+        } // yellow/orange firework
+
+        sparkCount = (int)(35 + maxRadius/10);
+
+        // find center of firework based on the position
+        if ("left".equals(position)) {
+            centerX = x + width*0.35;
+            centerY = y + height*0.35;
+        }
+        else if ("right".equals(position)) {
+            centerX = x + width*0.62;
+            centerY = y + width*0.38;
+        }
+        else {
+            centerX = x + width*0.50;
+            centerY = y + height*0.50;
+        }
+
+        glowKey = red + "," + green + "," + blue + "," + width + "x" + height + "," + position;
+    } // end of Firework class constructor
+
+    /**
+     * drawGlowRings():
+     * - draws a glow using ovals, with the firework's top left corner at (0,0)
+     * - only called when a glow sprite is baked, not every frame
+     */
+    void drawGlowRings(Graphics2D g2) {
+        // the sprite is placed at the firework's position later
+        int x = 0;
+        int y = 0;
+
+        int alpha; // opacity of glow rings
+        int redMultiplier; // how fast red brightens inward
+        int greenMultiplier; // how fast green brightens inward
+        int blueMultiplier; // how fast blue brightens inward
+        int ringCount; // number of glow rings
+
+        // choose glow style by color
+        if (green > red && green >= blue) {
+            alpha = 10;
+            redMultiplier = 6;
+            greenMultiplier = 8;
+            blueMultiplier = 10;
+            ringCount = 19;
+
+        } // green/turqoise
+        else if (blue > green && red > green) {
+            alpha = 18;
+            redMultiplier = 7;
+            greenMultiplier = 4;
+            blueMultiplier = 4;
+            ringCount = 23;
+
+        } // pink/purple
+        else {
+            alpha = 15;
+            redMultiplier = 5;
+            greenMultiplier = 7;
+            blueMultiplier = 5;
+            ringCount = 30;
+        } // yellow
+
+        // draw glow rings from biggest to smallest, getting brighter
+        for (int i = 0; i < ringCount; i++) {
+            // set the colors, capping at 255
+            int ringRed = Math.min((red + i*redMultiplier), 255);
+            int ringGreen = Math.min((green + i*greenMultiplier), 255);
+            int ringBlue = Math.min((blue + i*blueMultiplier), 255);
+
+            g2.setColor(new Color(ringRed, ringGreen, ringBlue, alpha)); // set the color of the ring
+            int shrink = i*6; // amount the circle shrinks by
+
+            // change the concentration of glow based on position param
+            if ("right".equals(position)) {
+                g2.fillOval(x+shrink*2, y+shrink, width-shrink*3, height-shrink*3);
+            } 
+            else if ("center".equals(position)) {
+                g2.fillOval(x+shrink*2, y+shrink*2, width-shrink*4, height-shrink*4);
+            } 
+            else {
+                g2.fillOval(x+shrink, y+shrink, width-shrink*3, height-shrink*3);
+            }
+        }
+    } // end of drawGlowRings() method
+} // end of Firework class
@@ -0,0 +1,207 @@
+package fireworks;
+
+/**
+ * Picture with AWT Shapes ASSIGNMENT
+ *
+ * PROJECT DESCRIPTION:
+ * Create a Java program that creates a drawing
+ * JPanel window made up of shapes from the AWT Graphics (or better) class
+ * 
+ * PROJECT:
+ * - animation of fireworks!
+ * - a lovely couple watching the fireworks
+ * - I made this because I thought it was semi-close to the New Year
+ * - and fireworks are pretty :)
+ *
+ * @Author Betty Wu, CS11
+ * @Version 1.0, 11.18.25 to 12.01.25
+ */
+
+// packages imported
+import java.awt.Graphics; // for drawing basic shapes
+import java.awt.Graphics2D; // for more complex graphics
+import java.awt.event.ActionEvent; // the HUD key was pressed
+
+import java.io.IOException; // writing the metrics report
+import java.nio.file.Paths; // where the metrics report goes
+
+import java.util.concurrent.ThreadLocalRandom; // picking a seed
+
+import javax.swing.AbstractAction; // toggling the HUD
+import javax.swing.JComponent; // key bindings while the window is focused
+import javax.swing.JFrame; // creates application window
+import javax.swing.JPanel; // the panel/canvas
+import javax.swing.KeyStroke; // the HUD key
+import javax.swing.Timer; // for animation timer
+
+
+public class FireworkArt {
+    // JFrame dimension constants
+    final int PANEL_WIDTH = FireworkScene.WIDTH; // width of the drawing area
+    final int PANEL_HEIGHT = FireworkScene.HEIGHT; // height of the drawing area
+
+    /** 
+     * MyJPanel class:
+     * - internal class with overrided paintComponent method to draw the graphics
+     */
+    class MyJPanel extends JPanel {
+        // how often the panel repaints; sparks are drawn in between simulation steps, so this can beat 33ms
+        static final int REPAINT_MILLIS = 16;
+
+        // everything in the picture
+        private FireworkScene scene = new FireworkScene();
+
+        // plays the show on its own thread at a fixed timestep
+        private FireworkSimulation simulation;
+
+        /** 
+         * constructor for the MyJPanel class:
+         * - starts simulating show with seed on its own thread, and a timer that only repaints
+         * - H shows or hides the metrics HUD
+         * - with -Dfireworks.metricsFile=FILE, frame time histograms are written to FILE on exit
+         */
+        public MyJPanel(Show show, long seed) {
+            super();
+
+            simulation = scene.newSimulation(show, seed);
+            scene.governWith(QualityGovernor.fromProperties()); // null without -Dfireworks.frameBudgetMs
+            simulation.start(); // sparks move on their own thread from now on
+
+            // repaint swing timer ~60 fps, lambda expression for action listener
+            Timer timer = new Timer(REPAINT_MILLIS, e -> {
+                scene.metrics.repaintRequested(); // so merged repaints can be counted
+                repaint(); // triggers paintComponent
+            });
+            timer.start(); // start timer
+
+            // H toggles the HUD
+            getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('h'), "toggleHud");
+            getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('H'), "toggleHud");
+            getActionMap().put("toggleHud", new AbstractAction() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    scene.metrics.toggleHud();
+                }
+            });
+
+            reportOnExit(scene.metrics);
+        } // end of MyJPanel() constructor
+
+        
+        /**
+         * paintComponent:
+         * - main drawing method called every repaint()
+         * - overrides JPanel's paintComponent() method to draw
+         * - the scene fills the whole panel, so there's no need to clear the background first
+         */
+        @Override
+        public void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g; // cast the graphics to Graphics2D for more complex shapes
+
+            // newest spark state from the simulation, and how far we are toward the step after it
+            FireworkSimulation.Snapshot frame = simulation.latest();
+            double t = frame.interpolation(System.nanoTime());
+
+            scene.paint(g2, frame, t, getGraphicsConfiguration(), getWidth(), getHeight());
+        } // end of the paintComponent() method
+    } // end of internal MyJPanel class
+    
+    
+    /**
+     * reportOnExit():
+     * - with -Dfireworks.metricsFile=FILE, writes metrics' histograms to FILE when the program exits
+     */
+    static void reportOnExit(FrameMetrics metrics) {
+        String metricsFile = System.getProperty("fireworks.metricsFile");
+        if (metricsFile == null) {
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                metrics.writeReport(Paths.get(metricsFile));
+            }
+            catch (IOException e) {
+                System.err.println("couldn't write metrics to " + metricsFile + ": " + e);
+            }
+        }, "metrics-report"));
+    } // end of reportOnExit() method
+
+
+    /** 
+     * FireworkArt constructor:
+     * - sets up window + panel playing show, with bursts from seed
+     * - with -Dfireworks.active=true, draws on a FireworkCanvas with its own render loop instead,
+     *   falling back to the panel if the canvas can't get a buffer strategy
+     */
+    public FireworkArt(Show show, long seed) {
+        JFrame theWindow = new JFrame("Watching the Fireworks"); // create the window
+        theWindow.setSize(PANEL_WIDTH, PANEL_HEIGHT); // set the dimensions of the window
+        theWindow.setResizable(true); // the scene scales to whatever size the window is
+        theWindow.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); // exit when user presses the close button
+
+        if (Boolean.getBoolean("fireworks.active")) {
+            FireworkCanvas canvas = new FireworkCanvas(show, seed);
+            theWindow.add(canvas); // fills the window
+            theWindow.setVisible(true); // buffers can only be made once it's on screen
+            if (canvas.start()) {
+                reportOnExit(canvas.scene.metrics);
+                System.out.println("active rendering, " + (canvas.pageFlipping() ? "page flipping" : "blitting"));
+                return;
+            }
+            System.err.println("active rendering isn't available here, using Swing repaints");
+            theWindow.remove(canvas);
+        }
+
+        MyJPanel artPanel = new MyJPanel(show, seed); // create instance of MyJPanel
+        artPanel.setOpaque(true); // allow the user to see the panel
+        artPanel.setBackground(FireworkScene.BACKGROUND); // set the background to a dark night sky color
+        theWindow.setContentPane(artPanel); // set it to be the main content pane
+
+        theWindow.revalidate(); // lay out again, in case the canvas was there first
+        theWindow.setVisible(true); // set the window to be visible
+    } // end of FireworkArt() constructor method
+
+    
+    /**
+     * main() method:
+     * - calls the FireworkArt() class
+     * - leads to creation of window with the graphics
+     * - with --show FILE, plays that timeline instead of the built-in show (see Show)
+     * - with --seed N, replays the exact show that seed N played; without it every run gets a new seed,
+     *   which is printed so a run worth seeing again (or measuring again) can be replayed
+     * - with --tiles CxR, splits the picture over a wall of windows or screens instead (see TileWall)
+     * - with --export, renders frames without a window instead (see FrameExporter)
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && "--export".equals(args[0])) {
+            FrameExporter.main(args);
+            return;
+        }
+        Show show = Show.defaultShow();
+        Long seed = null;
+        String tiles = null;
+        for (int i = 0; i < args.length; i++) {
+            if (i+1 < args.length && "--show".equals(args[i])) {
+                show = Show.load(Paths.get(args[++i]));
+            }
+            else if (i+1 < args.length && "--seed".equals(args[i])) {
+                seed = Long.parseLong(args[++i]);
+            }
+            else if (i+1 < args.length && "--tiles".equals(args[i])) {
+                tiles = args[++i];
+            }
+            else {
+                throw new IllegalArgumentException("usage: java -jar fireworks.jar [--show FILE] [--seed N] [--tiles CxR] or --export ...");
+            }
+        }
+        if (seed == null) {
+            seed = ThreadLocalRandom.current().nextLong();
+            System.out.println("seed " + seed + " (replay this show with --seed " + seed + ")");
+        }
+        if (tiles != null) {
+            new TileWall(show, seed, tiles);
+            return;
+        }
+        new FireworkArt(show, seed);
+    } // end of program main() method
+} // end of FireworkArt class
@@ -0,0 +1,175 @@
+package fireworks;
+
+import java.awt.AWTException; // page flipping isn't available
+import java.awt.BufferCapabilities; // asking for page flipping
+import java.awt.Canvas; // heavyweight surface we draw on ourselves
+import java.awt.DisplayMode; // the screen's refresh rate
+import java.awt.Graphics2D; // drawing each frame
+import java.awt.GraphicsConfiguration; // what the canvas is on
+import java.awt.ImageCapabilities; // accelerated buffers
+import java.awt.Toolkit; // flushing the frame to the screen
+import java.awt.event.KeyAdapter; // the HUD key
+import java.awt.event.KeyEvent; // which key
+import java.awt.image.BufferStrategy; // back buffers and page flipping
+
+import java.util.concurrent.locks.LockSupport; // sleeping until the next frame
+
+/**
+ * FireworkCanvas class:
+ * - active rendering: instead of a Swing Timer asking for repaint() and Swing deciding when to paint,
+ *   a render thread of our own draws straight into a BufferStrategy's back buffer and shows it
+ * - asks for page flipping first and takes a blitted back buffer if the screen can't flip
+ * - paces frames to the screen's refresh rate, or -Dfireworks.fps=N (default 60 when the rate is unknown);
+ *   it sleeps until the next frame is due rather than by a fixed delay, so time spent waiting on vsync in show()
+ *   isn't slept again, and a late frame doesn't cause a burst of catch-up frames
+ * - start() says whether it worked; FireworkArt falls back to MyJPanel when it doesn't
+ * - turned on with -Dfireworks.active=true
+ */
+class FireworkCanvas extends Canvas {
+    // frame rate used when the screen doesn't say and none is given
+    static final int DEFAULT_FPS = 60;
+
+    // everything in the picture
+    final FireworkScene scene = new FireworkScene();
+
+    // plays the show on its own thread at a fixed timestep
+    private final FireworkSimulation simulation;
+
+    // the render thread, null when stopped
+    private volatile Thread thread;
+
+    // where frames are drawn and how they get to the screen
+    private BufferStrategy strategy;
+
+    /**
+     * constructor of FireworkCanvas class:
+     * - a canvas that will play show with seed once start() is called
+     * - H shows or hides the metrics HUD
+     */
+    FireworkCanvas(Show show, long seed) {
+        simulation = scene.newSimulation(show, seed);
+        scene.governWith(QualityGovernor.fromProperties()); // null without -Dfireworks.frameBudgetMs
+        setIgnoreRepaint(true); // we draw when we want, not when AWT asks
+        setBackground(FireworkScene.BACKGROUND);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyTyped(KeyEvent e) {
+                if (Character.toLowerCase(e.getKeyChar()) == 'h') {
+                    scene.metrics.toggleHud();
+                }
+            }
+        });
+    } // end of FireworkCanvas class constructor
+
+    /**
+     * start():
+     * - sets up the back buffers and starts the simulation and render threads
+     * - the canvas has to be on screen already; returns false if no buffer strategy could be made
+     */
+    boolean start() {
+        try {
+            try {
+                // page flipping in video memory, if the screen can do it
+                createBufferStrategy(2, new BufferCapabilities(new ImageCapabilities(true), new ImageCapabilities(true),
+                        BufferCapabilities.FlipContents.UNDEFINED));
+            }
+            catch (AWTException e) {
+                createBufferStrategy(2); // whatever works, usually a blitted back buffer
+            }
+            strategy = getBufferStrategy();
+        }
+        catch (IllegalStateException | IllegalArgumentException e) {
+            return false; // not displayable, or no strategy at all
+        }
+        if (strategy == null) {
+            return false;
+        }
+
+        simulation.start();
+        thread = new Thread(this::run, "firework-render");
+        thread.setDaemon(true); // don't keep the program alive after the window closes
+        thread.start();
+        requestFocus(); // for the HUD key
+        return true;
+    } // end of start() method
+
+    /**
+     * pageFlipping():
+     * - whether frames are shown by flipping pages instead of copying the back buffer
+     */
+    boolean pageFlipping() {
+        return strategy != null && strategy.getCapabilities().isPageFlipping();
+    }
+
+    /**
+     * frameNanos():
+     * - time between frames: -Dfireworks.fps if given, otherwise the screen's refresh rate if known, otherwise DEFAULT_FPS
+     */
+    private long frameNanos() {
+        int fps = Integer.getInteger("fireworks.fps", 0);
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (fps <= 0 && gc != null) {
+            int refreshRate = gc.getDevice().getDisplayMode().getRefreshRate();
+            if (refreshRate != DisplayMode.REFRESH_RATE_UNKNOWN) {
+                fps = refreshRate;
+            }
+        }
+        if (fps <= 0) {
+            fps = DEFAULT_FPS;
+        }
+        return 1_000_000_000L/fps;
+    } // end of frameNanos() method
+
+    /**
+     * run():
+     * - the render loop: draw the newest snapshot into the back buffer, show it, sleep until the next frame is due
+     */
+    private void run() {
+        Thread self = Thread.currentThread();
+        long frameNanos = frameNanos();
+        long next = System.nanoTime();
+
+        while (thread == self) {
+            FireworkSimulation.Snapshot frame = simulation.latest();
+
+            // contents can be lost any time (e.g. the screen mode changed); redraw until a frame makes it
+            do {
+                do {
+                    Graphics2D g2 = (Graphics2D) strategy.getDrawGraphics();
+                    try {
+                        scene.paint(g2, frame, frame.interpolation(System.nanoTime()), getGraphicsConfiguration(), getWidth(), getHeight());
+                    }
+                    finally {
+                        g2.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync(); // push it out now, some window systems buffer it
+
+            next += frameNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+            }
+            else if (-wait > frameNanos) {
+                next = System.nanoTime(); // more than a frame behind, start pacing from now
+            }
+        }
+    } // end of run() method
+
+    /**
+     * stop():
+     * - stops the render thread and the simulation
+     */
+    void stop() throws InterruptedException {
+        Thread running = thread;
+        if (running == null) {
+            return;
+        }
+        thread = null;
+        LockSupport.unpark(running);
+        running.join();
+        simulation.stop();
+    } // end of stop() method
+} // end of FireworkCanvas class
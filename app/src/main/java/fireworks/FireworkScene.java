@@ -0,0 +1,792 @@
+package fireworks;
+
+import java.awt.BasicStroke; // changing the stroke width
+import java.awt.Color; // coloring shapes
+import java.awt.Composite; // restoring the normal blending after a faded glow
+import java.awt.GradientPaint; // color gradients in silhouettes and rim lights
+import java.awt.Graphics2D; // for more complex graphics
+import java.awt.GraphicsConfiguration; // matching cached images to the screen
+import java.awt.Rectangle; // what's visible, for culling
+import java.awt.RenderingHints; // smoother graphics
+import java.awt.geom.Path2D; // for drawing custom shapes
+import java.awt.image.BufferedImage; // baked glow sprites
+
+import java.util.ArrayList; // every trail batch, for flushing
+import java.util.HashMap; // trail batches by spark color
+import java.util.IdentityHashMap; // trail batches by firework
+
+/**
+ * FireworkScene class:
+ * - everything in the picture: fireworks, sparks, fence, and couple
+ * - what goes off and when is up to the Show being simulated; the scene draws whatever shells are in the snapshot
+ * - paints a simulation snapshot into any Graphics2D, so it works in the window (MyJPanel)
+ *   and without one (FrameExporter)
+ * - keeps its own cached images and trail batches, so use one scene per painting thread
+ * - glows and sparks are drawn with Java2D, or added into a framebuffer by an AdditiveCompositor
+ *   (-Dfireworks.additive=true), optionally with the spark glows done as a Bloom pass (-Dfireworks.bloom=true);
+ *   the silhouettes and HUD always use Java2D
+ * - the world is scaled to whatever size it's drawn at: it fills the width, stands on the bottom edge,
+ *   and a taller picture just shows more sky; the simulation, spark counts and everything else stay in world units,
+ *   only coordinates, stroke widths and the cached images (glow sprites, silhouettes) are scaled,
+ *   and those caches are only made again when the picture's size changes
+ * - on HiDPI screens sparks and glows are drawn in device pixels, not stretched from logical ones
+ * - the picture is a WIDTH x HEIGHT world; paint() draws all of it, paintView() one tile of it (a video wall,
+ *   see TileWall and FrameExporter --tiles), and every tile drawn from the same snapshot lines up with its neighbors
+ * - on screen, a QualityGovernor (governWith()) can decide how many sparks, how much trail,
+ *   and which extras each frame gets; a tile wall picks one level for all its tiles (useQuality());
+ *   without either, every frame is drawn the same way, which is what exports rely on
+ */
+class FireworkScene {
+    // size of the picture the scene is drawn for
+    static final int WIDTH = 900;
+    static final int HEIGHT = 500;
+
+    // dark night sky color
+    static final Color BACKGROUND = new Color(87, 67, 76);
+
+    // most sparks one shell can have alive at once; trails are batched so this can be a lot higher than 120
+    static final int MAX_SPARKS = 480;
+
+    // how many points each spark's trail remembers; recording a point costs the same for any length
+    static final int TRAIL_LENGTH = 20;
+
+    // glow brightness follows each burst when started with -Dfireworks.glowPulse=true
+    static final boolean GLOW_PULSE = Boolean.getBoolean("fireworks.glowPulse");
+
+    // glows and sparks are added into a framebuffer instead of drawn with Java2D, with -Dfireworks.additive=true
+    static final boolean ADDITIVE = Boolean.getBoolean("fireworks.additive");
+
+    // spark glows come from a blur of the sparks instead of wide lines, with -Dfireworks.bloom=true (additive only)
+    static final boolean BLOOM = Boolean.getBoolean("fireworks.bloom");
+
+    // how far outside the picture a segment can start and still light it: the widest glow stroke, or a bloom's blur
+    static final int CULL_MARGIN = (int)TrailPalette.MAX_STROKE_WIDTH;
+
+    // sparks that leave this area for good are removed from the simulation before their life runs out
+    static final Rectangle VISIBLE = new Rectangle(-CULL_MARGIN, -CULL_MARGIN, WIDTH + 2*CULL_MARGIN, HEIGHT + 2*CULL_MARGIN);
+
+    // most tiles a wall can be split into each way
+    static final int MAX_TILES = 8;
+
+    // trail length of every spark this scene draws
+    final int trailLength;
+
+    // additive framebuffer for glows and sparks, null when they're drawn with Java2D
+    private final AdditiveCompositor compositor;
+
+    // batched trail drawing with cached strokes and colors, one batch per spark color shared by every shell of that color
+    private final HashMap<Integer, TrailBatch> trailsByColor = new HashMap<>();
+    private final ArrayList<TrailBatch> trails = new ArrayList<>();
+
+    // each firework's batch, looked up without boxing its color every frame
+    private final IdentityHashMap<Firework, TrailBatch> trailsByFirework = new IdentityHashMap<>();
+
+    // glow rings baked into sprites, drawn once per color/size/position and reused every frame
+    private GlowSpriteCache glowSprites = new GlowSpriteCache();
+
+    // fence and couple, drawn once and reused every frame since they never change
+    private CachedLayer silhouettes = new CachedLayer(this::drawSilhouettesScaled);
+
+    // how the world maps onto the picture: device pixels per world unit, how far down the world starts,
+    // and the size of the picture in device pixels; worked out from the picture's size every frame
+    private double pixelScale = 1;
+    private double offsetY = 0;
+    private double deviceScale = 1;
+    private int outputWidth;
+    private int outputHeight;
+
+    // the same for the silhouette layer, which is drawn in logical pixels (a HiDPI screen scales it itself)
+    private double layerScale = 1;
+    private double layerOffsetY = 0;
+
+    // frame and phase timings, spark counts, and the HUD
+    final FrameMetrics metrics = new FrameMetrics();
+
+    // steps quality down and up to stay inside a frame budget, null if nobody gave us one
+    private QualityGovernor governor;
+
+    // how the current frame is drawn, and whether the HUD shows it (only when something other than the default chose it)
+    private QualityGovernor.Level quality = QualityGovernor.DEFAULT;
+    private boolean qualityShown;
+
+    // the current frame's clip, grown by CULL_MARGIN; segments entirely outside it aren't queued
+    private final Rectangle clip = new Rectangle();
+    private int cullLeft = Integer.MIN_VALUE;
+    private int cullTop = Integer.MIN_VALUE;
+    private int cullRight = Integer.MAX_VALUE;
+    private int cullBottom = Integer.MAX_VALUE;
+
+    // bytes allocated per frame by the whole paint and by the sparks alone (-Dfireworks.allocStats=true)
+    private AllocationCounter paintAllocations = new AllocationCounter("paint", 150);
+    private AllocationCounter sparkAllocations = new AllocationCounter("fireworkSparks", 150);
+
+    /**
+     * constructor of FireworkScene class:
+     * - sparks remember TRAIL_LENGTH points
+     */
+    FireworkScene() {
+        this(TRAIL_LENGTH);
+    } // end of FireworkScene class constructor
+
+    /**
+     * constructor of FireworkScene class:
+     * - sparks remember trailLength points; simulations drawn by this scene have to match
+     */
+    FireworkScene(int trailLength) {
+        this(trailLength, ADDITIVE || BLOOM, BLOOM);
+    } // end of FireworkScene class constructor
+
+    /**
+     * constructor of FireworkScene class:
+     * - like above; additive picks the AdditiveCompositor over Java2D for glows and sparks,
+     *   and bloom (which needs additive) blurs the sparks into their glow
+     */
+    FireworkScene(int trailLength, boolean additive, boolean bloom) {
+        if (bloom && !additive) {
+            throw new IllegalArgumentException("bloom only works with the additive compositor");
+        }
+        this.trailLength = trailLength;
+        this.compositor = additive ? new AdditiveCompositor(bloom) : null;
+    } // end of FireworkScene class constructor
+
+    /**
+     * newSimulation():
+     * - makes a simulation of the built-in show for this scene; it is not started
+     */
+    FireworkSimulation newSimulation() {
+        return newSimulation(Show.defaultShow());
+    } // end of newSimulation() method
+
+    /**
+     * newSimulation():
+     * - makes a simulation of show for this scene with the default seed; it is not started
+     */
+    FireworkSimulation newSimulation(Show show) {
+        return newSimulation(show, FireworkSimulation.DEFAULT_SEED);
+    } // end of newSimulation() method
+
+    /**
+     * newSimulation():
+     * - makes a simulation of show for this scene whose bursts come from seed; it is not started
+     * - sparks that fall or fly out of VISIBLE for good are retired early
+     */
+    FireworkSimulation newSimulation(Show show, long seed) {
+        return new FireworkSimulation(show, Math.max(1, Math.min(show.maxSparks(), MAX_SPARKS)), trailLength,
+                SparkWorkers.THREADS, seed, VISIBLE);
+    } // end of newSimulation() method
+
+    /**
+     * paint():
+     * - draws the whole picture for one simulation snapshot onto any Graphics2D
+     *
+     * params:
+     * - frame: the spark state to draw
+     * - t: how far (0 to 1) the picture is between that snapshot and the next step
+     * - gc: configuration of what we're drawing onto, or null off screen (cached images are made to match)
+     * - width, height: size of the area being drawn
+     */
+    void paint(Graphics2D g2, FireworkSimulation.Snapshot frame, double t, GraphicsConfiguration gc, int width, int height) {
+        paintWorld(g2, frame, t, gc, width, height);
+        metrics.drawHud(g2);
+    } // end of paint() method
+
+    /**
+     * paintWorld():
+     * - everything paint() draws except the HUD
+     */
+    private void paintWorld(Graphics2D g2, FireworkSimulation.Snapshot frame, double t, GraphicsConfiguration gc, int width, int height) {
+        paintAllocations.begin(); // count what this frame allocates
+        long start = System.nanoTime();
+        metrics.frameStart(frame, start);
+        if (governor != null) {
+            quality = governor.level();
+        }
+        metrics.setQuality(qualityShown ? quality.name : null);
+        fitTo(gc, width, height);
+
+        // sparks and glows are drawn in device pixels; that's only a different space on a HiDPI screen
+        Graphics2D device = g2;
+        if (deviceScale != 1) {
+            device = (Graphics2D) g2.create();
+            device.scale(1/deviceScale, 1/deviceScale);
+        }
+        cullTo(device, outputWidth, outputHeight);
+
+        if (compositor != null) {
+            paintAdditive(device, frame, t, outputWidth, outputHeight);
+        }
+        else {
+            // dark night sky
+            device.setColor(BACKGROUND);
+            device.fillRect(0, 0, outputWidth, outputHeight);
+
+            // render the graphics smoother, unless there's no time for it
+            device.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                    quality.antialiasing ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+
+            // every shell's glow first, oldest at the back
+            long lap = System.nanoTime();
+            for (int k = 0; quality.glows && k < frame.shellCount; k++) {
+                Shell shell = frame.shells[k];
+                drawGlow(device, gc, shell.firework, frame.frameCount - shell.launchStep + t);
+            }
+            lap = metrics.lap(FrameMetrics.GLOW, lap);
+
+            // then every shell's sparks on top, batched by color across shells
+            sparkAllocations.begin();
+            for (int k = 0; k < frame.shellCount; k++) {
+                Shell shell = frame.shells[k];
+                queueSparks(shell.sparks, trailsFor(shell.firework), t);
+            }
+            for (int b = 0; b < trails.size(); b++) {
+                trails.get(b).flush(device, quality.roundCaps);
+            }
+            sparkAllocations.end();
+            metrics.lap(FrameMetrics.SPARKS, lap);
+        }
+        if (device != g2) {
+            device.dispose();
+        }
+
+        // fence and couple in front, copied from the cached layer, always smooth
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        long silhouettesStart = System.nanoTime();
+        silhouettes.draw(g2, gc, width, height);
+        metrics.lap(FrameMetrics.SILHOUETTES, silhouettesStart);
+
+        // finish this frame's timings and allocation counts; the HUD isn't part of the frame
+        metrics.frameDone(start);
+        if (governor != null) {
+            governor.frameDone(System.nanoTime() - start);
+        }
+        paintAllocations.end();
+        paintAllocations.frameDone();
+        sparkAllocations.frameDone();
+    } // end of paintWorld() method
+
+    /**
+     * paintView():
+     * - draws the view part of the world (a tile of a wall) into g2's top left corner, view.width x view.height
+     * - anything outside the view is clipped, and culled before it's drawn; the HUD goes in the tile's own corner
+     */
+    void paintView(Graphics2D g2, FireworkSimulation.Snapshot frame, double t, GraphicsConfiguration gc, Rectangle view) {
+        paintView(g2, frame, t, gc, view, view.width, view.height);
+    } // end of paintView() method
+
+    /**
+     * paintView():
+     * - like above, but fills width x height: the view is scaled as big as it fits and centered,
+     *   with night sky in the bars around it (a tile on a screen of another shape)
+     * - every tile scaled the same way lines up with its neighbors, the edges are rounded from the same numbers
+     */
+    void paintView(Graphics2D g2, FireworkSimulation.Snapshot frame, double t, GraphicsConfiguration gc, Rectangle view,
+            int width, int height) {
+        double scale = Math.min(width/(double)view.width, height/(double)view.height);
+        int left = (int)Math.round(view.x*scale);
+        int top = (int)Math.round(view.y*scale);
+        int right = (int)Math.round((view.x + view.width)*scale);
+        int bottom = (int)Math.round((view.y + view.height)*scale);
+        int barX = (width - (right - left))/2;
+        int barY = (height - (bottom - top))/2;
+        if (barX > 0 || barY > 0) {
+            g2.setColor(BACKGROUND);
+            g2.fillRect(0, 0, width, height);
+        }
+
+        Graphics2D world = (Graphics2D) g2.create();
+        world.translate(barX - left, barY - top);
+        world.clipRect(left, top, right - left, bottom - top);
+        paintWorld(world, frame, t, gc, (int)Math.round(WIDTH*scale), (int)Math.round(HEIGHT*scale));
+        world.dispose();
+
+        metrics.drawHud(g2);
+    } // end of paintView() method
+
+    /**
+     * tiles():
+     * - splits the world into a wall of columns x rows tiles, given as "CxR" (e.g. "3x2"), row by row from the top left
+     * - tiles are as even as whole pixels allow and cover the world exactly
+     */
+    static Rectangle[] tiles(String layout) {
+        String[] parts = layout.split("x");
+        int columns;
+        int rows;
+        try {
+            columns = parts.length == 2 ? Integer.parseInt(parts[0]) : -1;
+            rows = parts.length == 2 ? Integer.parseInt(parts[1]) : -1;
+        }
+        catch (NumberFormatException e) {
+            columns = -1;
+            rows = -1;
+        }
+        if (columns < 1 || rows < 1 || columns > MAX_TILES || rows > MAX_TILES) {
+            throw new IllegalArgumentException("tiles have to look like 2x1, up to " + MAX_TILES + " each way: " + layout);
+        }
+
+        Rectangle[] tiles = new Rectangle[columns*rows];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                int left = c*WIDTH/columns;
+                int top = r*HEIGHT/rows;
+                tiles[r*columns + c] = new Rectangle(left, top, (c+1)*WIDTH/columns - left, (r+1)*HEIGHT/rows - top);
+            }
+        }
+        return tiles;
+    } // end of tiles() method
+
+    /**
+     * governWith():
+     * - lets governor pick the quality of every frame from how long this scene's frames take to paint,
+     *   null goes back to the default quality; only for painting on screen, where timing is all that matters
+     */
+    void governWith(QualityGovernor governor) {
+        this.governor = governor;
+        quality = QualityGovernor.DEFAULT;
+        qualityShown = governor != null;
+    } // end of governWith() method
+
+    /**
+     * useQuality():
+     * - draws the next frames at level, chosen by someone else (e.g. one governor for a whole tile wall)
+     */
+    void useQuality(QualityGovernor.Level level) {
+        governor = null;
+        quality = level;
+        qualityShown = true;
+    } // end of useQuality() method
+
+    /**
+     * fitTo():
+     * - works out how the world maps onto a width x height picture (logical pixels) drawn with gc
+     * - when that changes, the trail batches and glow light made for the old size are dropped,
+     *   to be made again at the new one; the glow sprites and silhouette layer notice on their own
+     */
+    private void fitTo(GraphicsConfiguration gc, int width, int height) {
+        deviceScale = gc == null ? 1 : gc.getDefaultTransform().getScaleX();
+        outputWidth = (int)Math.round(width*deviceScale);
+        outputHeight = (int)Math.round(height*deviceScale);
+
+        double scale = outputWidth/(double)WIDTH;
+        offsetY = Math.max(0, outputHeight - HEIGHT*scale); // a taller picture gets more sky, a shorter one loses the bottom
+        layerScale = width/(double)WIDTH;
+        layerOffsetY = Math.max(0, height - HEIGHT*layerScale);
+
+        if (scale != pixelScale) {
+            pixelScale = scale;
+            trailsByColor.clear();
+            trailsByFirework.clear();
+            trails.clear();
+            if (compositor != null) {
+                compositor.clearGlows();
+            }
+        }
+    } // end of fitTo() method
+
+    /**
+     * cullTo():
+     * - sets the culling bounds for this frame: g2's clip (the whole area if there's none) inside width x height,
+     *   grown by CULL_MARGIN world units
+     */
+    private void cullTo(Graphics2D g2, int width, int height) {
+        clip.setBounds(0, 0, width, height);
+        g2.getClipBounds(clip); // left alone when there's no clip
+        int margin = (int)Math.ceil(CULL_MARGIN*pixelScale);
+        cullLeft = Math.max(clip.x, 0) - margin;
+        cullTop = Math.max(clip.y, 0) - margin;
+        cullRight = Math.min(clip.x + clip.width, width) + margin;
+        cullBottom = Math.min(clip.y + clip.height, height) + margin;
+    } // end of cullTo() method
+
+    /**
+     * paintAdditive():
+     * - the sky, glows and sparks added up in the compositor's framebuffer, then drawn with one drawImage
+     * - the framebuffer has no antialiasing of its own, so the silhouettes drawn after it still get it
+     */
+    private void paintAdditive(Graphics2D g2, FireworkSimulation.Snapshot frame, double t, int width, int height) {
+        long lap = System.nanoTime();
+        compositor.begin(width, height, BACKGROUND.getRGB());
+        for (int k = 0; quality.glows && k < frame.shellCount; k++) {
+            Shell shell = frame.shells[k];
+            double brightness = glowBrightness(frame.frameCount - shell.launchStep + t);
+            if (brightness > 0) {
+                Firework firework = shell.firework;
+                compositor.addGlow(firework, glowSprites.sprite(firework, null, pixelScale),
+                        toPixelX(firework.x), toPixelY(firework.y), brightness);
+            }
+        }
+        lap = metrics.lap(FrameMetrics.GLOW, lap);
+
+        sparkAllocations.begin();
+        for (int k = 0; k < frame.shellCount; k++) {
+            Shell shell = frame.shells[k];
+            Firework firework = shell.firework;
+            compositor.useSpark((firework.sparkRed << 16) | (firework.sparkGreen << 8) | firework.sparkBlue, trailLength, pixelScale);
+            queueSparks(shell.sparks, compositor, t);
+        }
+        sparkAllocations.end();
+        lap = metrics.lap(FrameMetrics.SPARKS, lap);
+
+        compositor.finish();
+        g2.drawImage(compositor.image(), 0, 0, null);
+        metrics.lap(FrameMetrics.BLOOM, lap);
+    } // end of paintAdditive() method
+
+    /**
+     * trailsFor():
+     * - the trail batch for firework's spark color, made the first time that color shows up
+     */
+    private TrailBatch trailsFor(Firework firework) {
+        TrailBatch batch = trailsByFirework.get(firework);
+        if (batch == null) {
+            int rgb = (firework.sparkRed << 16) | (firework.sparkGreen << 8) | firework.sparkBlue;
+            batch = trailsByColor.get(rgb);
+            if (batch == null) {
+                batch = new TrailBatch(new TrailPalette(trailLength, firework.sparkRed, firework.sparkGreen, firework.sparkBlue, pixelScale));
+                trailsByColor.put(rgb, batch);
+                trails.add(batch);
+            }
+            trailsByFirework.put(firework, batch);
+        }
+        return batch;
+    } // end of trailsFor() method
+
+    
+    /**
+     * fireworkSparks():
+     * - draws the sparks of one firework from a simulation snapshot
+     *
+     * params:
+     * - sparkList: the firework's sparks after the latest simulation step
+     * - trails: the firework's trail batch
+     * - t: how far (0 to 1) the picture is between that step and the next
+     */
+    void fireworkSparks(Graphics2D g2, SparkPool sparkList, TrailBatch trails, double t) {
+        queueSparks(sparkList, trails, t);
+
+        // draw every queued segment, one stroke and color per group
+        trails.flush(g2);
+    } // end of fireworkSparks() method
+
+    /**
+     * queueSparks():
+     * - sends every trail segment of sparkList to trails; a TrailBatch only queues them, nothing is drawn yet
+     * - only the sparks and the part of each trail the current quality level draws
+     * - culled: the faint tail too transparent to show up is skipped, and so is every segment outside the clip
+     * - t: how far (0 to 1) the picture is between that step and the next; every trail point
+     *   slides that far toward the point after it so sparks move smoothly between steps
+     */
+    private void queueSparks(SparkPool sparkList, TrailSink trails, double t) {
+        int trailLength = sparkList.trailLength;
+        int first = quality.firstSegment(trailLength);
+        double scale = pixelScale;
+        double down = offsetY;
+
+        // queue every spark's trail
+        for (int i = 0; i < sparkList.count; i++) {
+            if (!quality.drawsSpark(i)) {
+                continue;
+            }
+
+            // lifespan in between this step and the next
+            double life = sparkList.life[i] - SparkPool.LIFE_STEP*t;
+            if (life <= 0) {
+                continue;
+            }
+
+            // alpha grows toward the head, so everything before this segment is invisible
+            int start = Math.max(first, (int)(TrailPalette.MIN_ALPHA*160*(trailLength-1)/life));
+            if (start >= trailLength-1) {
+                continue; // even the head is too faint
+            }
+
+            // the tail end of the trail, or as much of it as gets drawn
+            double x1 = lerp(sparkList.pointX(i, start), sparkList.pointX(i, start+1), t)*scale;
+            double y1 = lerp(sparkList.pointY(i, start), sparkList.pointY(i, start+1), t)*scale + down;
+
+            // loop through the trail segments, oldest to newest
+            for (int j = start; j<trailLength-1; j++) {
+                // how far along the trail goes from 0 (tail) to 1 (head)
+                double pos = j/(double)(trailLength-1);
+
+                // adjust the opacity so the tail fades out
+                float alpha = (float)(pos*life/160.0);
+
+                // the other end of this segment; the last one reaches toward the spark itself
+                double x2 = lerp(sparkList.pointX(i, j+1), sparkList.pointX(i, j+2), t)*scale;
+                double y2 = lerp(sparkList.pointY(i, j+1), sparkList.pointY(i, j+2), t)*scale + down;
+
+                // queue the bright white spark and its soft glow with same-looking segments, if they're in view
+                int ix1 = (int)x1;
+                int iy1 = (int)y1;
+                int ix2 = (int)x2;
+                int iy2 = (int)y2;
+                if (Math.max(ix1, ix2) >= cullLeft && Math.min(ix1, ix2) <= cullRight
+                        && Math.max(iy1, iy2) >= cullTop && Math.min(iy1, iy2) <= cullBottom) {
+                    trails.add(j, ix1, iy1, ix2, iy2, alpha);
+                }
+
+                x1 = x2;
+                y1 = y2;
+            }
+        }
+    } // end of queueSparks() method
+
+    /**
+     * lerp():
+     * - the point t (0 to 1) of the way from a to b
+     */
+    private double lerp(double a, double b, double t) {
+        return a + (b-a)*t;
+    }
+
+    
+    /**
+     * drawGlow():
+     * - draws the firework's baked glow, fading out once its sparks are gone
+     *
+     * params:
+     * - gc: configuration of what we're drawing onto, or null off screen
+     * - age: steps since the shell burst, in between frames included
+     */
+    void drawGlow(Graphics2D g2, GraphicsConfiguration gc, Firework firework, double age) {
+        double brightness = glowBrightness(age);
+        if (brightness <= 0) {
+            return;
+        }
+
+        // the glow rings never change, so they come from a cached sprite that is only faded, never redrawn
+        BufferedImage glow = glowSprites.sprite(firework, gc, pixelScale);
+        int x = toPixelX(firework.x);
+        int y = toPixelY(firework.y);
+        if (brightness < 1) {
+            Composite normal = g2.getComposite();
+            g2.setComposite(GlowSpriteCache.brightness(brightness));
+            g2.drawImage(glow, x, y, null);
+            g2.setComposite(normal);
+        }
+        else {
+            g2.drawImage(glow, x, y, null);
+        }
+    } // end of drawGlow() method
+
+    /**
+     * glowBrightness():
+     * - how bright (0 to 1) a glow is age steps after its burst, pulsing with -Dfireworks.glowPulse=true
+     */
+    private static double glowBrightness(double age) {
+        double brightness = Shell.glowBrightness(age);
+        if (GLOW_PULSE) {
+            // flare up at the burst, then settle down
+            double flare = Math.max(0, 1 - age/(Shell.LIFETIME/2.0));
+            brightness *= 0.6 + 0.4*flare;
+        }
+        return brightness;
+    } // end of glowBrightness() method
+
+    
+    /**
+     * toPixelX() and toPixelY():
+     * - where a point of the world is in the picture, in device pixels
+     */
+    private int toPixelX(double x) {
+        return (int)Math.floor(x*pixelScale);
+    }
+
+    private int toPixelY(double y) {
+        return (int)Math.floor(y*pixelScale + offsetY);
+    }
+
+    /**
+     * drawSilhouettesScaled():
+     * - draws the silhouettes fitted to the picture the same way as everything else
+     */
+    private void drawSilhouettesScaled(Graphics2D g2) {
+        if (layerScale != 1 || layerOffsetY != 0) {
+            g2.translate(0, layerOffsetY);
+            g2.scale(layerScale, layerScale);
+        }
+        drawSilhouettes(g2);
+    } // end of drawSilhouettesScaled() method
+
+    /**
+     * drawSilhouettes():
+     * - draws the fence and the couple in front of the fireworks
+     * - only called when the cached silhouette layer has to be redrawn, not every frame
+     */
+    private void drawSilhouettes(Graphics2D g2) {
+        /**
+         * SILHOUETTES
+         * - fence in front as a dark silhouette with rim light from fireworks
+         * - a couple watching the fireworks
+         * - drawn using Path2D and a LOT of trial and error
+         */
+
+        // silhouette colors for gradients, used for both fence and couple
+        Color shadow1 = new Color(30, 20, 25); // darker color for fence, rgb
+        Color shadow2 = new Color(60, 35, 30); // lighter color for fence, rgb
+        Color light1 = new Color(200, 120, 190, 60); // purple-ish light from fireworks, rgba
+        Color light2 = new Color(240, 200, 120, 50); // warm yellow light from fireworks, rgba
+
+        /**
+         * FENCE
+         * - slightly angled
+         */
+        // start and end coordinates of the fence
+        int x1 = -4; // left start, slightly offset so the glow of the outline is not shown
+        int y1 = HEIGHT*3/5; // base y for top fence rail
+        int x2 = WIDTH+4; // right end, slightly offset for same reason
+        int y2 = y1+50; // end y for top fence rail
+        int gap = 100; // gap between the two horizontal rails, used for y coordinate
+
+        // draw the horizontal parts of the fence
+        Path2D.Double fenceRails = new Path2D.Double();
+        // lower rail
+        fenceRails.moveTo(x1, y1+gap+15);
+        fenceRails.lineTo(x1, y1+gap);
+        fenceRails.lineTo(x2, y2+gap);
+        fenceRails.lineTo(x2, y2+gap+15);
+        // upper rail
+        fenceRails.moveTo(x1, y1+15);
+        fenceRails.lineTo(x1, y1);
+        fenceRails.lineTo(x2, y2);
+        fenceRails.lineTo(x2, y2+15);
+        fenceRails.closePath(); // we have stopped drawing the horizontal rails
+
+        // draw the vertical parts of the fence (supports)
+        Path2D.Double fenceSupports = new Path2D.Double();
+        // left vertical support
+        fenceSupports.moveTo(x2/5, y1-15);
+        fenceSupports.curveTo(x2/5, y1-15, x2/5+7, y1-18, x2/5+15, y1-14);
+        fenceSupports.lineTo(x2/5-10, HEIGHT+1);
+        fenceSupports.lineTo(x2/5-25, HEIGHT+1);
+        // right vertical support
+        fenceSupports.moveTo(x2*4/5+15, y1+20);
+        fenceSupports.curveTo(x2*4/5+15, y1+20, x2*4/5+7, y1+17, x2*4/5, y1+20);
+        fenceSupports.lineTo(x2*4/5, HEIGHT+1);
+        fenceSupports.lineTo(x2*4/5+15, HEIGHT+1);
+        // center vertical support
+        fenceSupports.moveTo(x2/2, y1+5);
+        fenceSupports.curveTo(x2/2, y1+5, x2/2+7, y1+2, x2/2+15, y1+6);
+        fenceSupports.lineTo(x2/2+5, HEIGHT+1);
+        fenceSupports.lineTo(x2/2-10, HEIGHT+1);
+        fenceSupports.closePath(); // we have stopped drawing the vertical supports
+
+        // overlay polygons to hide awkward overlaps
+        Path2D.Double overlay = new Path2D.Double();
+        // left top overlay
+        overlay.moveTo(x2/5-10, y1+17);
+        overlay.lineTo(x2/5+4, y1+2);
+        overlay.lineTo(x2/5+18, y1+19);
+        overlay.lineTo(x2/5+2, y1+36);
+        // left bottom overlay
+        overlay.moveTo(x2/5-19, y2+gap-35);
+        overlay.lineTo(x2/5-6, y2+gap-50);
+        overlay.lineTo(x2/5+7, y2+gap-33);
+        overlay.lineTo(x2/5-8, y2+gap-20);
+        // center top overlay
+        overlay.moveTo(x2/2-8, y1+32);
+        overlay.lineTo(x2/2+7, y1+17);
+        overlay.lineTo(x2/2+20, y1+34);
+        overlay.lineTo(x2/2+5, y1+49);
+        // center bottom overlay
+        overlay.moveTo(x2/2-13, y2+gap-17);
+        overlay.lineTo(x2/2+2, y2+gap-35);
+        overlay.lineTo(x2/2+16, y2+gap-15);
+        overlay.lineTo(x2/2, y2+gap-1);
+        // right top overlay
+        overlay.moveTo(x2*4/5-5, y1+49);
+        overlay.lineTo(x2*4/5+7, y1+65);
+        overlay.lineTo(x2*4/5+23, y1+48);
+        overlay.lineTo(x2*4/5+5, y1+30);
+        // right bottom overlay
+        overlay.moveTo(x2*4/5-7, y2+gap-2);
+        overlay.lineTo(x2*4/5+7, y2+gap-20);
+        overlay.lineTo(x2*4/5+21, y2+gap-3);
+        overlay.lineTo(x2*4/5+5, y2+gap+12);
+        overlay.closePath(); // we have stopped drawing the overlays
+
+        // fill in the color of the fence, dark silhouette
+        g2.setPaint(new GradientPaint(x1, y1+50, shadow1, x2, y2, shadow2, false));
+        g2.fill(fenceRails);
+        g2.fill(fenceSupports);
+
+        // rim light from the fireworks on the fence
+        g2.setPaint(new GradientPaint(x1, y1+50, light1, x2, y2, light2, false));
+        g2.setStroke(new BasicStroke(6)); // make the stroke wider for a noticeable glow
+        g2.draw(fenceRails);
+        g2.draw(fenceSupports);
+
+        // thinner lighter rim line on top for extra glow!
+        g2.setPaint(new GradientPaint(x1, y1+50, new Color(120, 145, 120, 180), x2, y2, new Color(250, 210, 160, 230), false));
+        g2.setStroke(new BasicStroke(1)); // set stroke back to 1
+        g2.draw(fenceRails);
+        g2.draw(fenceSupports);
+
+        // fill overlay to hide awkward edges
+        g2.setPaint(new GradientPaint(x1, y1+50, shadow1, x2, y2, shadow2, false));
+        g2.fill(overlay);
+        
+        /**
+         * COUPLE SILHOUETTE
+         * - two people watching the spectacle happen!
+         * - how romantic!
+         */
+        // some base coordinates
+        int baseX = WIDTH*5/8+20;
+        int baseY = HEIGHT*2/3;
+        int baseY2 = baseY-100;
+        int baseX2 = baseX+100;
+        
+        // draw the couple
+        Path2D.Double couple = new Path2D.Double();
+        couple.moveTo(baseX, HEIGHT); // start at the bottom
+        // first, draw the man
+        couple.lineTo(baseX, baseY+20); // pants
+        couple.lineTo(baseX-3, baseY+15); // shirt
+        couple.curveTo(baseX-5, baseY, baseX+4, baseY-10, baseX+2, baseY-35);
+        couple.curveTo(baseX-5, baseY-15, baseX-15, baseY+5, baseX-40, baseY); // arm
+        couple.curveTo(baseX-45, baseY+3, baseX-60, baseY-5, baseX-30, baseY-15);
+        couple.lineTo(baseX-22, baseY-30);
+        couple.curveTo(baseX-15, baseY2-13, baseX-15, baseY2, baseX+18, baseY2-13);
+        couple.lineTo(baseX+18, baseY2-18); // neck
+        couple.curveTo(baseX+14, baseY2-22, baseX+14, baseY2-15, baseX+7, baseY2-32); // head
+        couple.curveTo(baseX+7, baseY2-32, baseX-2, baseY2-43, baseX+5, baseY2-50);
+        couple.curveTo(baseX+5, baseY2-60, baseX-12, baseY2-66, baseX+30, baseY2-70);
+        couple.curveTo(baseX+55, baseY2-78, baseX+45, baseY2-25, baseX+35, baseY2-18);
+        couple.lineTo(baseX+35, baseY2-13); // neck again
+        couple.lineTo(baseX+70, baseY2);
+        // now onto the woman!
+        couple.lineTo(baseX+70, baseY2-10); // neck
+        couple.lineTo(baseX+63, baseY2-11);
+        couple.curveTo(baseX+63, baseY2-11, baseX+58, baseY2-20, baseX+65, baseY2-37); // face
+        couple.lineTo(baseX+63, baseY2-39); // hair
+        couple.curveTo(baseX+50, baseY2-39, baseX2, baseY2-80, baseX2+5, baseY2-30);
+        couple.lineTo(baseX2-2, baseY2+12);
+        couple.curveTo(baseX2-2, baseY2+12, baseX2+5, baseY2+25, baseX2-6, baseY2+30); // man's arm
+        couple.lineTo(baseX2-2, baseY-42);
+        couple.lineTo(baseX2-6, baseY-42);
+        couple.curveTo(baseX2-5, baseY-35, baseX2-20, baseY-25, baseX2-1, baseY-5); // shirt
+        couple.lineTo(baseX2-5, baseY);
+        couple.curveTo(baseX2-5, baseY, baseX2+10, baseY+32, baseX2+5, baseY+60); // skirt
+        couple.lineTo(baseX2-2, baseY+62);
+        couple.curveTo(baseX2, baseY+100, baseX2-20, baseY+100, baseX2+10, HEIGHT); // legs
+        couple.lineTo(baseX2-30, HEIGHT);
+        couple.lineTo(baseX2-40, baseY+58);
+        couple.lineTo(baseX2-48, HEIGHT);
+        couple.closePath(); // we're done drawing the couple :)
+        
+        // fill in the couple, setting the gradient
+        g2.setPaint(new GradientPaint(baseX-100, HEIGHT, shadow1, x2, y2, shadow2, false));
+        g2.fill(couple);
+        
+        // rim light from the fireworks
+        g2.setPaint(new GradientPaint(baseX-60, y1, new Color(0,0,0,0), baseX2+5, baseY2-30, light2, false));
+        g2.setStroke(new BasicStroke(6)); // thicker for noticeable glow
+        g2.draw(couple);
+        
+        // extra rim light (sharper)
+        g2.setPaint(new GradientPaint(baseX-60, y1, new Color(220, 245, 220, 50), baseX2+5, baseY2-30, new Color(255, 255, 255, 200), false));
+        g2.setStroke(new BasicStroke(1)); // set back to 1
+        g2.draw(couple);
+    } // end of drawSilhouettes() method
+} // end of FireworkScene class
@@ -0,0 +1,427 @@
+package fireworks;
+
+import java.awt.Rectangle; // where sparks can still be seen
+
+import java.util.Arrays; // growing the shell arrays
+import java.util.PriorityQueue; // launches that haven't happened yet, earliest first
+import java.util.SplittableRandom; // each burst's own random numbers
+import java.util.concurrent.atomic.AtomicReference; // lock-free hand-off of finished frames
+import java.util.concurrent.locks.LockSupport; // sleeping until the next step
+
+/**
+ * FireworkSimulation class:
+ * - plays a Show: launches its shells on time and moves every spark at a fixed timestep on its own thread,
+ *   so a slow or skipped repaint can't slow down or double-step the animation
+ * - upcoming launches wait in a priority queue by time, so each step only looks at launches that are due;
+ *   every shell lives for the same Shell.LIFETIME, so the oldest active shell is always the next to retire
+ *   and active shells are kept in a ring, oldest first; retired shells are reused, so a running show doesn't allocate
+ * - after each step the state is copied into a Snapshot and handed to the painter
+ *   through a lock-free triple buffer: the simulation always has a buffer to write,
+ *   the painter always has a complete buffer to read, and neither ever waits for the other
+ * - the painter uses the snapshot's time to draw sparks in between two steps (interpolation)
+ * - sparks are stepped by SparkWorkers, on one thread or spread over several, with the same result either way
+ * - every burst gets its own random generator, seeded from the simulation's seed, the launch's place
+ *   in the show and how many times the show has looped; the same seed always plays the exact same show,
+ *   and changing one launch in a show doesn't change how any other launch looks
+ * - crossette sparks split after every pool is swept, on the simulation thread, oldest shell first,
+ *   with at most SPLIT_BUDGET new sparks per step, so a big finale can't flood the pools
+ */
+class FireworkSimulation {
+    // one simulation step every 33ms, ~30 steps per second like the old animation timer
+    static final long STEP_NANOS = 33_000_000L;
+
+    // if the simulation falls this many steps behind, skip ahead instead of trying to catch up
+    static final int MAX_CATCH_UP_STEPS = 5;
+
+    // seed used when none is given, so benchmarks and exports see the same show every run
+    static final long DEFAULT_SEED = 0;
+
+    // most sparks splitting off in one step, over every shell; pick with -Dfireworks.splitBudget=N
+    static final int SPLIT_BUDGET = Math.max(0, Integer.getInteger("fireworks.splitBudget", 2000));
+
+    /**
+     * Snapshot class:
+     * - a complete copy of the show's state after one step
+     */
+    static class Snapshot {
+        // copies of the active shells, oldest first; only the first shellCount are in use
+        Shell[] shells = new Shell[0];
+        int shellCount;
+
+        // size of each shell's spark pool, the same as the simulation's
+        final int sparksPerShell;
+        final int trailLength;
+
+        // which step this is
+        int frameCount;
+
+        // how long the step that made this state took, in nanoseconds
+        long stepNanos;
+
+        // System.nanoTime() at which this step's state is meant to be on screen
+        long time;
+
+        // true until the painter has picked this snapshot up
+        boolean fresh;
+
+        Snapshot(int sparksPerShell, int trailLength) {
+            this.sparksPerShell = sparksPerShell;
+            this.trailLength = trailLength;
+        }
+
+        /**
+         * sparkCount():
+         * - how many sparks are alive in every shell together
+         */
+        int sparkCount() {
+            int total = 0;
+            for (int i = 0; i < shellCount; i++) {
+                total += shells[i].sparks.count;
+            }
+            return total;
+        } // end of sparkCount() method
+
+        /**
+         * interpolation():
+         * - how far (0 to 1) the picture at time now is between this step and the next
+         */
+        double interpolation(long now) {
+            double t = (now - time)/(double)STEP_NANOS;
+            return Math.max(0, Math.min(t, 1));
+        }
+    } // end of Snapshot class
+
+    // what the simulation is playing
+    final Show show;
+
+    // size of every shell's spark pool
+    final int sparksPerShell;
+    final int trailLength;
+
+    // where every burst's randomness comes from
+    final long seed;
+
+    // launches still to come, earliest first; copies of the show's, moved forward by loopSteps when it loops
+    private final PriorityQueue<Show.Launch> pending = new PriorityQueue<>(Show.BY_TIME);
+
+    // active shells as a ring, oldest at activeHead; only touched by the simulation thread
+    private Shell[] active = new Shell[16];
+    private int activeHead;
+    private int activeCount;
+
+    // retired shells waiting to be reused
+    private Shell[] spare = new Shell[16];
+    private int spareCount;
+
+    // moves the sparks, on one thread or several
+    private final SparkWorkers workers;
+
+    // frame counter used to time the launches
+    private int frameCount = 0;
+
+    // how long the last step() took
+    private long stepNanos;
+
+    // triple buffer: back is written by the simulation, front is read by the painter, ready is in between
+    private Snapshot back;
+    private final AtomicReference<Snapshot> ready;
+    private Snapshot front;
+
+    // the simulation thread, null when stopped
+    private volatile Thread thread;
+
+    /**
+     * constructor of FireworkSimulation class:
+     * - plays show with room for as many sparks as its biggest shell
+     */
+    FireworkSimulation(Show show, int trailLength) {
+        this(show, Math.max(1, show.maxSparks()), trailLength, SparkWorkers.THREADS, DEFAULT_SEED);
+    } // end of FireworkSimulation class constructor
+
+    /**
+     * constructor of FireworkSimulation class:
+     * - plays show; every shell holds at most sparksPerShell sparks with trailLength points each
+     */
+    FireworkSimulation(Show show, int sparksPerShell, int trailLength) {
+        this(show, sparksPerShell, trailLength, SparkWorkers.THREADS, DEFAULT_SEED);
+    } // end of FireworkSimulation class constructor
+
+    /**
+     * constructor of FireworkSimulation class:
+     * - like above, stepping sparks on threads threads, with every burst's randomness coming from seed
+     */
+    FireworkSimulation(Show show, int sparksPerShell, int trailLength, int threads, long seed) {
+        this(show, sparksPerShell, trailLength, threads, seed, null);
+    } // end of FireworkSimulation class constructor
+
+    /**
+     * constructor of FireworkSimulation class:
+     * - like above; sparks that leave visible for good are removed before their life runs out,
+     *   null keeps them all until they die
+     */
+    FireworkSimulation(Show show, int sparksPerShell, int trailLength, int threads, long seed, Rectangle visible) {
+        this.show = show;
+        this.sparksPerShell = sparksPerShell;
+        this.trailLength = trailLength;
+        this.seed = seed;
+        workers = new SparkWorkers(threads, SparkKernel.SELECTED, visible);
+
+        for (Show.Launch launch : show.launches) {
+            pending.add(launch.copy());
+        }
+
+        back = newSnapshot();
+        ready = new AtomicReference<>(newSnapshot());
+        front = newSnapshot();
+    } // end of FireworkSimulation class constructor
+
+    /**
+     * step():
+     * - advances the show by one frame: retiring old shells, launching new ones, physics, and removing dead sparks
+     */
+    void step() {
+        long began = System.nanoTime();
+        frameCount++;
+
+        // every shell lives as long, so the oldest ones are the ones that are done
+        while (activeCount > 0 && frameCount - active[activeHead].launchStep >= Shell.LIFETIME) {
+            retireOldest();
+        }
+
+        // launch everything that's due; the queue only ever hands out launches whose time has come
+        while (!pending.isEmpty() && pending.peek().step <= frameCount) {
+            Show.Launch launch = pending.poll();
+            launch(launch.firework, launch.pattern, launch.sparks, launchSeed(launch), launch.drag, launch.splits);
+            if (show.loopSteps > 0) {
+                launch.step += show.loopSteps; // same launch next time around
+                pending.add(launch);
+            }
+        }
+
+        // update all sparks, then recycle the slots of the ones whose lifespan is over
+        workers.update(active, activeHead, activeCount);
+
+        // dead crossette sparks split, oldest shell first, until this step's budget is gone
+        int budget = SPLIT_BUDGET;
+        for (int k = 0; k < activeCount; k++) {
+            budget = active[(activeHead+k) % active.length].sparks.spawnSplits(budget);
+        }
+        stepNanos = System.nanoTime() - began;
+    } // end of step() method
+
+    /**
+     * launchSeed():
+     * - the seed for launch's burst: its place in the show and which time around the loop it is, mixed into the seed
+     */
+    private long launchSeed(Show.Launch launch) {
+        int round = show.loopSteps > 0 ? launch.step/show.loopSteps : 0; // every launch starts before the first loop point
+        return mix(mix(mix(seed) + launch.order) + round);
+    } // end of launchSeed() method
+
+    /**
+     * mix():
+     * - scrambles every bit of value into every other one (SplitMix64's finalizer),
+     *   so seeds that are only 1 apart still get unrelated random numbers
+     */
+    static long mix(long value) {
+        value = (value ^ (value >>> 30))*0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27))*0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    } // end of mix() method
+
+    /**
+     * launch():
+     * - bursts firework right now with sparks sparks in pattern, on top of whatever the show is doing
+     * - the burst's randomness comes from launchSeed alone, so the same seed gives the same burst
+     */
+    void launch(Firework firework, BurstPattern pattern, int sparks, long launchSeed) {
+        launch(firework, pattern, sparks, launchSeed, SparkPool.DRAG, 0);
+    } // end of launch() method
+
+    /**
+     * launch():
+     * - like above, with its own drag and splits (see SparkPool.configure()); the show's wind blows on it
+     */
+    void launch(Firework firework, BurstPattern pattern, int sparks, long launchSeed, double drag, int splits) {
+        Shell shell = spareCount > 0 ? spare[--spareCount] : new Shell(sparksPerShell, trailLength);
+        shell.firework = firework;
+        shell.pattern = pattern;
+        shell.launchStep = frameCount;
+        shell.sparks.clear();
+        shell.sparks.configure(drag, show.wind, splits);
+        burst(firework, pattern, shell.sparks, sparks, new SplittableRandom(launchSeed));
+
+        // add it at the young end of the ring, growing the ring if it's full
+        if (activeCount == active.length) {
+            Shell[] bigger = new Shell[active.length*2];
+            for (int k = 0; k < activeCount; k++) {
+                bigger[k] = active[(activeHead+k) % active.length];
+            }
+            active = bigger;
+            activeHead = 0;
+        }
+        active[(activeHead+activeCount) % active.length] = shell;
+        activeCount++;
+    } // end of launch() method
+
+    /**
+     * retireOldest():
+     * - takes the oldest shell off the show and keeps it for reuse
+     */
+    private void retireOldest() {
+        Shell shell = active[activeHead];
+        active[activeHead] = null;
+        activeHead = (activeHead+1) % active.length;
+        activeCount--;
+
+        shell.firework = null;
+        if (spareCount == spare.length) {
+            spare = Arrays.copyOf(spare, spare.length*2);
+        }
+        spare[spareCount++] = shell;
+    } // end of retireOldest() method
+
+    /**
+     * advanceTo():
+     * - steps without publishing until the simulation has done frameIndex steps
+     * - the simulation can only go forward, so frameIndex can't be behind where it is now
+     */
+    void advanceTo(int frameIndex) {
+        if (frameIndex < frameCount) {
+            throw new IllegalArgumentException("already past frame " + frameIndex + " (at " + frameCount + ")");
+        }
+        while (frameCount < frameIndex) {
+            step();
+        }
+    } // end of advanceTo() method
+
+    /**
+     * burst():
+     * - adds a fresh explosion of sparkCount sparks in pattern at the firework's center
+     * - sparks past the pool's capacity are dropped
+     * - velocities come from the pattern's BurstTemplate, scaled to the firework and turned a random way;
+     *   the turn and where a peony starts in its template come from random, which only this burst uses
+     */
+    void burst(Firework firework, BurstPattern pattern, SparkPool sparkList, int sparkCount, SplittableRandom random) {
+        BurstTemplate template = BurstTemplate.of(pattern, sparkCount);
+        int offset = random.nextInt(template.offsets());
+        double angle = random.nextDouble()*2*Math.PI;
+        int rgb = (firework.sparkRed << 16) | (firework.sparkGreen << 8) | firework.sparkBlue;
+
+        // speeds scale with size
+        sparkList.spawnBurst(template, offset, sparkCount, firework.centerX, firework.centerY,
+                firework.maxRadius/55.0, Math.cos(angle), Math.sin(angle), rgb);
+    } // end of burst() method
+
+    /**
+     * newSnapshot():
+     * - makes an empty snapshot sized for this simulation, for callers that keep their own copies
+     */
+    Snapshot newSnapshot() {
+        return new Snapshot(sparksPerShell, trailLength);
+    }
+
+    /**
+     * copyTo():
+     * - copies the current state into snapshot; time is when this state should be on screen
+     * - the snapshot only allocates when the show has more shells going than it has ever held
+     */
+    void copyTo(Snapshot snapshot, long time) {
+        if (snapshot.shells.length < activeCount) {
+            Shell[] bigger = Arrays.copyOf(snapshot.shells, Math.max(activeCount, snapshot.shells.length*2));
+            for (int k = snapshot.shells.length; k < bigger.length; k++) {
+                bigger[k] = new Shell(sparksPerShell, trailLength);
+            }
+            snapshot.shells = bigger;
+        }
+        for (int k = 0; k < activeCount; k++) {
+            snapshot.shells[k].copyFrom(active[(activeHead+k) % active.length]);
+        }
+        snapshot.shellCount = activeCount;
+        snapshot.frameCount = frameCount;
+        snapshot.stepNanos = stepNanos;
+        snapshot.time = time;
+    } // end of copyTo() method
+
+    /**
+     * publish():
+     * - copies the current state into the back buffer and swaps it into ready
+     * - time is when this state should be on screen
+     */
+    void publish(long time) {
+        copyTo(back, time);
+        back.fresh = true;
+
+        // hand the finished buffer over and take back whichever one was waiting
+        back = ready.getAndSet(back);
+    } // end of publish() method
+
+    /**
+     * latest():
+     * - returns the newest published snapshot; only call this from the painting thread
+     * - the returned snapshot stays untouched until the next call
+     */
+    Snapshot latest() {
+        if (ready.get().fresh) {
+            front = ready.getAndSet(front);
+            front.fresh = false;
+        }
+        return front;
+    } // end of latest() method
+
+    /**
+     * start():
+     * - starts the fixed timestep simulation thread
+     */
+    synchronized void start() {
+        if (thread != null) {
+            return; // already running
+        }
+        thread = new Thread(this::run, "firework-simulation");
+        thread.setDaemon(true); // don't keep the program alive after the window closes
+        thread.start();
+    } // end of start() method
+
+    /**
+     * stop():
+     * - asks the simulation thread to finish, waits for it, and ends the spark worker threads
+     * - call it once the simulation isn't needed any more, even if it was only stepped by hand;
+     *   it can't step after this
+     */
+    synchronized void stop() throws InterruptedException {
+        Thread running = thread;
+        thread = null;
+        if (running != null) {
+            LockSupport.unpark(running);
+            running.join();
+        }
+        workers.shutdown();
+    } // end of stop() method
+
+    /**
+     * run():
+     * - the simulation loop: step, publish, then sleep until the next step is due
+     * - if a step runs late the next ones run back to back to catch up, up to MAX_CATCH_UP_STEPS
+     */
+    private void run() {
+        Thread self = Thread.currentThread();
+        long next = System.nanoTime();
+        publish(next); // so the painter has something right away
+
+        while (thread == self) {
+            long wait = next+STEP_NANOS - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue; // check again, parkNanos can wake up early
+            }
+
+            next += STEP_NANOS;
+            if (-wait > MAX_CATCH_UP_STEPS*STEP_NANOS) {
+                next = System.nanoTime(); // too far behind, drop the missed steps
+            }
+
+            step();
+            publish(next);
+        }
+    } // end of run() method
+} // end of FireworkSimulation class
@@ -0,0 +1,438 @@
+package fireworks;
+
+import java.awt.Graphics2D; // drawing each frame
+import java.awt.Rectangle; // one tile of a frame
+import java.awt.image.BufferedImage; // offscreen frame
+import java.awt.image.DataBufferInt; // raw pixels of the frame
+
+import java.io.BufferedOutputStream; // fast writes to stdout
+import java.io.ByteArrayOutputStream; // encoded frames waiting their turn
+import java.io.File; // png output folder
+import java.io.IOException; // writing can fail
+import java.io.OutputStream; // where frames go
+
+import java.nio.file.Paths; // the show file and the video file
+
+import java.util.ArrayDeque; // frames in flight, oldest first
+import java.util.ArrayList; // a frame's tiles being rendered
+import java.util.concurrent.ForkJoinPool; // rendering threads
+import java.util.concurrent.ForkJoinTask; // one frame (or tile) being rendered
+
+import javax.imageio.IIOImage; // a frame for the jpeg writer
+import javax.imageio.ImageIO; // png and jpeg encoding
+import javax.imageio.ImageWriteParam; // jpeg quality
+import javax.imageio.ImageWriter; // one jpeg encoder per thread
+import javax.imageio.stream.ImageOutputStream; // what the jpeg writer writes into
+
+/**
+ * FrameExporter class:
+ * - renders the scene frame by frame into offscreen images, no window needed
+ * - writes a numbered PNG sequence to a folder, a PNG stream to stdout, raw RGBA to stdout,
+ *   or a Motion-JPEG AVI video (see AviWriter)
+ * - frames only depend on their spark state, so they're rendered in parallel:
+ *   - the simulation runs ahead on the calling thread and copies each step into a snapshot slot
+ *   - each frame is drawn and encoded on a ForkJoinPool; every worker thread has its own
+ *     FireworkScene, image and jpeg encoder, since scenes keep per-thread caches
+ *   - the calling thread writes finished frames in order (to stdout or the video) while the next ones render,
+ *     so encoding and writing overlap with drawing
+ *   - at most 2 frames per thread are in flight; the oldest is always finished and written first,
+ *     so output stays in order and memory stays flat however long the export is; the slots and their
+ *     encoded bytes are reused, nothing per frame is kept
+ *
+ * - with --tiles, each frame is also split into wall tiles (see FireworkScene.tiles()) that render in parallel
+ *   from the same snapshot, each culled to its own part, and are stitched back into the whole frame
+ * - with --size, frames are drawn at any size (e.g. 3840x2160): the scene scales to it, the simulation doesn't change
+ *
+ * usage: java -jar fireworks.jar --export [--frames N] [--start N] [--format png|raw|avi] [--out DIR|FILE|-] [--threads N] [--show FILE] [--seed N] [--tiles CxR] [--size WxH]
+ * - --frames: how many frames to render (default 300, 10 seconds)
+ * - --start: simulation steps to run without drawing first; the first exported frame is the step after them,
+ *   step N+1, since step 0 is the empty sky before anything happens (default 0, so frames start at step 1)
+ * - --format: png images, raw 8-bit RGBA pixels with no header, or an avi video (default png)
+ * - --out: folder for frame00000.png, frame00001.png, ... or - for stdout (default frames; raw is always stdout),
+ *   or the video file for avi (default show.avi)
+ * - --threads: how many frames to render at once (default one per core)
+ * - --show: timeline to play (default the built-in show, see Show)
+ * - --seed: where the bursts' randomness comes from; the same seed exports the same frames (default 0)
+ * - --tiles: render every frame as columns x rows tiles, e.g. 2x2 (default 1x1, the whole frame at once)
+ * - --size: width x height of the frames in pixels (default 900x500, the world's own size; tiles only work at that size)
+ *
+ * e.g. java -jar fireworks.jar --export --format raw | ffmpeg -f rawvideo -pix_fmt rgba -s 900x500 -r 30 -i - show.mp4
+ * e.g. java -jar fireworks.jar --export --format avi --frames 18000 --out preview.avi (10 minutes)
+ */
+class FrameExporter {
+    // output formats
+    static final String PNG = "png";
+    static final String RAW = "raw";
+    static final String AVI = "avi";
+
+    // where frames go when --out isn't given
+    static final String DEFAULT_FOLDER = "frames";
+    static final String DEFAULT_VIDEO = "show.avi";
+
+    // jpeg quality of avi frames, 0 to 1; sparks are small and bright, so lower gets blocky fast
+    static final float JPEG_QUALITY = 0.9f;
+
+    // frames in flight per rendering thread
+    static final int FRAMES_PER_THREAD = 2;
+
+    // what to render
+    private final int frames;
+    private final int start;
+    private final String format;
+    private final String out;
+    private final int threads;
+    private final Show show;
+    private final long seed;
+    private final Rectangle[] tiles;
+    private final int width;
+    private final int height;
+
+    /**
+     * Worker class:
+     * - what one rendering thread draws with, made the first time the thread renders a frame
+     */
+    private static class Worker {
+        final FireworkScene scene = new FireworkScene();
+        final BufferedImage image;
+        ImageWriter jpeg; // made the first time an avi frame is encoded
+        ImageWriteParam jpegParam;
+
+        Worker(int width, int height) {
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+    }
+
+    /**
+     * Encoded class:
+     * - encoded bytes of a frame, readable without copying them out
+     */
+    private static class Encoded extends ByteArrayOutputStream {
+        byte[] bytes() {
+            return buf;
+        }
+    }
+
+    /**
+     * Slot class:
+     * - one frame in flight: its spark state and its encoded output, reused every window frames
+     */
+    private static class Slot {
+        final FireworkSimulation.Snapshot snapshot;
+        final byte[] rgba; // raw output
+        final Encoded encoded = new Encoded(); // png output for stdout, or a jpeg for the video
+        final BufferedImage stitched; // the tiles put back together, null without tiles
+
+        Slot(FireworkSimulation.Snapshot snapshot, int width, int height, boolean raw, boolean tiled) {
+            this.snapshot = snapshot;
+            this.rgba = raw ? new byte[width*height*4] : null;
+            this.stitched = tiled ? new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB) : null;
+        }
+    }
+
+    /**
+     * constructor of FrameExporter class:
+     * - see the class comment for what each option means
+     */
+    FrameExporter(int frames, int start, String format, String out, int threads, Show show, long seed, String tiles, String size) {
+        if (!PNG.equals(format) && !RAW.equals(format) && !AVI.equals(format)) {
+            throw new IllegalArgumentException("unknown format: " + format + " (use png, raw or avi)");
+        }
+        if (AVI.equals(format) && "-".equals(out)) {
+            throw new IllegalArgumentException("avi needs a file, it can't go to stdout");
+        }
+        if (frames < 1) {
+            throw new IllegalArgumentException("need at least one frame: " + frames);
+        }
+        if (start < 0) {
+            throw new IllegalArgumentException("start can't be negative");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("need at least one thread");
+        }
+        String[] wh = size.split("x");
+        if (wh.length != 2 || !wh[0].matches("[0-9]{1,5}") || !wh[1].matches("[0-9]{1,5}")
+                || Integer.parseInt(wh[0]) < 1 || Integer.parseInt(wh[1]) < 1) {
+            throw new IllegalArgumentException("bad size: " + size + " (use WxH, e.g. 1920x1080)");
+        }
+        this.width = Integer.parseInt(wh[0]);
+        this.height = Integer.parseInt(wh[1]);
+        if (!"1x1".equals(tiles) && (width != FireworkScene.WIDTH || height != FireworkScene.HEIGHT)) {
+            throw new IllegalArgumentException("tiles only work at the world's own size, " + FireworkScene.WIDTH + "x" + FireworkScene.HEIGHT);
+        }
+        if ((long)width*height*4 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("size too big: " + size);
+        }
+        this.frames = frames;
+        this.start = start;
+        this.format = format;
+        if (RAW.equals(format)) {
+            this.out = "-";
+        }
+        else if (out == null) {
+            this.out = AVI.equals(format) ? DEFAULT_VIDEO : DEFAULT_FOLDER;
+        }
+        else {
+            this.out = out;
+        }
+        this.threads = threads;
+        this.show = show;
+        this.seed = seed;
+        this.tiles = FireworkScene.tiles(tiles);
+    } // end of FrameExporter class constructor
+
+    /**
+     * main() method:
+     * - reads the --export options and runs the export
+     */
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true"); // before anything touches AWT
+
+        int frames = 300;
+        int start = 0;
+        String format = PNG;
+        String out = null; // depends on the format
+        int threads = Runtime.getRuntime().availableProcessors();
+        Show show = Show.defaultShow();
+        long seed = FireworkSimulation.DEFAULT_SEED;
+        String tiles = "1x1";
+        String size = FireworkScene.WIDTH + "x" + FireworkScene.HEIGHT;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ("--export".equals(arg)) {
+                continue; // how we got here
+            }
+            if (i+1 >= args.length) {
+                throw new IllegalArgumentException("missing value for " + arg);
+            }
+            String value = args[++i];
+            if ("--frames".equals(arg)) {
+                frames = Integer.parseInt(value);
+            }
+            else if ("--start".equals(arg)) {
+                start = Integer.parseInt(value);
+            }
+            else if ("--format".equals(arg)) {
+                format = value;
+            }
+            else if ("--out".equals(arg)) {
+                out = value;
+            }
+            else if ("--threads".equals(arg)) {
+                threads = Integer.parseInt(value);
+            }
+            else if ("--show".equals(arg)) {
+                show = Show.load(Paths.get(value));
+            }
+            else if ("--seed".equals(arg)) {
+                seed = Long.parseLong(value);
+            }
+            else if ("--tiles".equals(arg)) {
+                tiles = value;
+            }
+            else if ("--size".equals(arg)) {
+                size = value;
+            }
+            else {
+                throw new IllegalArgumentException("unknown option: " + arg);
+            }
+        }
+
+        new FrameExporter(frames, start, format, out, threads, show, seed, tiles, size).export();
+    } // end of main() method
+
+    /**
+     * export():
+     * - renders every frame and writes it out; progress goes to stderr so stdout stays clean
+     */
+    void export() throws IOException {
+        FireworkSimulation simulation = new FireworkScene().newSimulation(show, seed);
+
+        boolean video = AVI.equals(format);
+        boolean toStdout = "-".equals(out);
+        File folder = toStdout || video ? null : new File(out);
+        if (folder != null && !folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("can't create output folder " + folder);
+        }
+        OutputStream stdout = toStdout ? new BufferedOutputStream(System.out, 1 << 20) : null;
+        AviWriter avi = video ? new AviWriter(Paths.get(out), width, height, FireworkSimulation.STEP_NANOS) : null;
+
+        // one slot per frame in flight; frame i always uses slot i % window
+        int window = threads*FRAMES_PER_THREAD;
+        Slot[] slots = new Slot[window];
+        for (int i = 0; i < window; i++) {
+            slots[i] = new Slot(simulation.newSnapshot(), width, height, RAW.equals(format), tiles.length > 1);
+        }
+        ArrayDeque<ForkJoinTask<Slot>> inFlight = new ArrayDeque<>(); // oldest frame first
+
+        // every rendering thread gets its own scene and image
+        ThreadLocal<Worker> workers = ThreadLocal.withInitial(() -> new Worker(width, height));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        // skip ahead without drawing; each frame below steps first, so frame 0 is step start+1
+        simulation.advanceTo(start);
+
+        long began = System.nanoTime();
+        try {
+            for (int i = 0; i < frames; i++) {
+                // the slot we're about to reuse belongs to the oldest frame in flight, finish it first
+                if (inFlight.size() == window) {
+                    finish(inFlight.removeFirst(), stdout, avi);
+                }
+
+                // simulate ahead and keep this step's state for the renderer
+                Slot slot = slots[i % window];
+                simulation.step();
+                simulation.copyTo(slot.snapshot, 0);
+
+                int frame = i;
+                inFlight.addLast(pool.submit(() -> render(workers, slot, frame, folder, video)));
+            }
+            while (!inFlight.isEmpty()) {
+                finish(inFlight.removeFirst(), stdout, avi);
+            }
+        }
+        catch (Throwable e) {
+            if (avi != null) {
+                avi.abort(e); // a video cut short isn't finished, and closing it mustn't hide what went wrong
+            }
+            throw e;
+        }
+        finally {
+            pool.shutdownNow();
+            stop(simulation);
+        }
+        if (avi != null) {
+            avi.close();
+        }
+        if (stdout != null) {
+            stdout.flush();
+        }
+
+        double seconds = (System.nanoTime() - began)/1e9;
+        System.err.printf("exported %d frames in %.1f s (%.1f frames/s, %d threads)%n", frames, seconds, frames/seconds, threads);
+    } // end of export() method
+
+    /**
+     * stop():
+     * - ends simulation's spark worker threads; it was only stepped from here, so there's no thread to wait for
+     */
+    private static void stop(FireworkSimulation simulation) {
+        try {
+            simulation.stop();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // keep the interrupt for whoever asked
+        }
+    } // end of stop() method
+
+    /**
+     * render():
+     * - draws one frame with the calling thread's worker, or its tiles with whichever workers pick them up,
+     *   and encodes it into its slot
+     * - png frames going to a folder are written straight away, order doesn't matter for files
+     */
+    private Slot render(ThreadLocal<Worker> workers, Slot slot, int frame, File folder, boolean video) throws IOException {
+        Worker worker = workers.get();
+        BufferedImage image;
+        if (slot.stitched == null) {
+            Graphics2D g2 = worker.image.createGraphics();
+            worker.scene.paint(g2, slot.snapshot, 0, null, width, height);
+            g2.dispose();
+            image = worker.image;
+        }
+        else {
+            ArrayList<ForkJoinTask<?>> tileTasks = new ArrayList<>(tiles.length);
+            for (Rectangle tile : tiles) {
+                tileTasks.add(ForkJoinTask.adapt(() -> renderTile(workers.get(), slot, tile)));
+            }
+            ForkJoinTask.invokeAll(tileTasks); // this thread helps, and waits for the rest
+            image = slot.stitched;
+        }
+
+        if (slot.rgba != null) {
+            toRgba(image, slot.rgba);
+        }
+        else if (video) {
+            slot.encoded.reset();
+            toJpeg(worker, image, slot.encoded);
+        }
+        else if (folder == null) {
+            slot.encoded.reset();
+            ImageIO.write(image, PNG, slot.encoded);
+        }
+        else {
+            ImageIO.write(image, PNG, new File(folder, String.format("frame%05d.png", frame)));
+        }
+        return slot;
+    } // end of render() method
+
+    /**
+     * renderTile():
+     * - draws one tile of the slot's frame into the top left of the worker's image, then copies it
+     *   into its place in the stitched frame; tiles don't overlap, so they can be copied at the same time
+     */
+    private static void renderTile(Worker worker, Slot slot, Rectangle tile) {
+        Graphics2D g2 = worker.image.createGraphics();
+        worker.scene.paintView(g2, slot.snapshot, 0, null, tile);
+        g2.dispose();
+
+        int[] from = ((DataBufferInt) worker.image.getRaster().getDataBuffer()).getData();
+        int[] to = ((DataBufferInt) slot.stitched.getRaster().getDataBuffer()).getData();
+        for (int row = 0; row < tile.height; row++) {
+            System.arraycopy(from, row*FireworkScene.WIDTH, to, (tile.y + row)*FireworkScene.WIDTH + tile.x, tile.width);
+        }
+    } // end of renderTile() method
+
+    /**
+     * finish():
+     * - waits for one frame and writes it to the video or stdout if that's where frames go
+     */
+    private static void finish(ForkJoinTask<Slot> task, OutputStream stdout, AviWriter avi) throws IOException {
+        Slot slot = task.join(); // rethrows anything the render threw
+        if (avi != null) {
+            avi.writeFrame(slot.encoded.bytes(), slot.encoded.size());
+            return;
+        }
+        if (stdout == null) {
+            return; // already written to its file
+        }
+        if (slot.rgba != null) {
+            stdout.write(slot.rgba);
+        }
+        else {
+            slot.encoded.writeTo(stdout);
+        }
+    } // end of finish() method
+
+    /**
+     * toJpeg():
+     * - encodes image as a JPEG at JPEG_QUALITY into encoded, with the worker's encoder
+     */
+    private static void toJpeg(Worker worker, BufferedImage image, Encoded encoded) throws IOException {
+        if (worker.jpeg == null) {
+            worker.jpeg = ImageIO.getImageWritersByFormatName("jpeg").next();
+            worker.jpegParam = worker.jpeg.getDefaultWriteParam();
+            worker.jpegParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            worker.jpegParam.setCompressionQuality(JPEG_QUALITY);
+        }
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(encoded)) {
+            worker.jpeg.setOutput(stream);
+            worker.jpeg.write(null, new IIOImage(image, null, null), worker.jpegParam);
+        }
+    } // end of toJpeg() method
+
+    /**
+     * toRgba():
+     * - copies the image's pixels into rgba as R, G, B, A bytes, row by row
+     */
+    private static void toRgba(BufferedImage image, byte[] rgba) {
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        for (int p = 0, b = 0; p < pixels.length; p++, b += 4) {
+            int rgb = pixels[p];
+            rgba[b] = (byte)(rgb >> 16);
+            rgba[b+1] = (byte)(rgb >> 8);
+            rgba[b+2] = (byte)rgb;
+            rgba[b+3] = (byte)0xFF; // the scene is opaque
+        }
+    } // end of toRgba() method
+} // end of FrameExporter class
@@ -0,0 +1,260 @@
+package fireworks;
+
+import java.awt.Color; // HUD colors
+import java.awt.Font; // HUD text
+import java.awt.Graphics2D; // drawing the HUD
+
+import java.io.IOException; // writing the report can fail
+import java.io.PrintWriter; // writing the report
+
+import java.nio.file.Files; // opening the report file
+import java.nio.file.Path; // where the report goes
+
+import java.util.Arrays; // clearing the window totals
+
+/**
+ * FrameMetrics class:
+ * - times every painted frame and each of its phases: glows, sparks (trail drawing), silhouettes,
+ *   and with the additive compositor the bloom pass and blit
+ * - picks up the simulation step time and shell and spark counts from each snapshot it paints
+ * - counts frames that never made it to the screen:
+ *   - coalesced repaints: repaint() was asked for but Swing merged it into another paint
+ *   - skipped steps: the simulation stepped more than once between two paints, so a step was never shown
+ *   - late frames: more than one simulation step (33ms) passed between two paints
+ * - keeps latency histograms of paint time, time between paints, and step time for the whole run;
+ *   writeReport() dumps them in HdrHistogram's format so p99 can be compared between runs
+ * - drawHud() draws a small live overlay, refreshed a few times per second
+ * - everything except repaintRequested() and writeReport() is only called from the painting thread
+ */
+class FrameMetrics {
+    // phases of a frame, for lap()
+    static final int GLOW = 0;
+    static final int SPARKS = 1;
+    static final int SILHOUETTES = 2;
+    static final int BLOOM = 3;
+    static final String[] PHASE_NAMES = {"glow", "sparks", "silhouettes", "bloom"};
+
+    // how often the HUD's numbers are refreshed
+    static final long HUD_REFRESH_NANOS = 500_000_000L;
+
+    // HUD look
+    private static final Font HUD_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color HUD_BACKGROUND = new Color(0, 0, 0, 150);
+    private static final int HUD_LINE_HEIGHT = 14;
+
+    // whole-run histograms, in nanoseconds
+    private final LatencyHistogram paintTimes = new LatencyHistogram();
+    private final LatencyHistogram frameIntervals = new LatencyHistogram();
+    private final LatencyHistogram stepTimes = new LatencyHistogram();
+
+    // time spent in each phase during the current frame
+    private final long[] phaseNanos = new long[PHASE_NAMES.length];
+
+    // totals since the HUD was last refreshed
+    private final long[] windowPhaseNanos = new long[PHASE_NAMES.length];
+    private long windowPaintNanos;
+    private long windowMaxPaintNanos;
+    private long windowStepNanos;
+    private int windowSteps;
+    private int windowFrames;
+    private long windowStart;
+
+    // whole-run counters
+    private long repaintRequests; // written by whoever calls repaint(), read here
+    private long paints;
+    private long skippedSteps;
+    private long lateFrames;
+
+    // what the previous frame saw
+    private long lastFrameStart;
+    private int lastStep = -1;
+
+    // live counts from the latest snapshot
+    private int shells;
+    private int sparks;
+
+    // QualityGovernor level the frames are drawn at, null without one
+    private String quality;
+
+    // HUD text, rebuilt every HUD_REFRESH_NANOS instead of every frame
+    private String[] hudLines = {"measuring..."};
+
+    // whether the HUD is drawn; starts on with -Dfireworks.hud=true
+    private volatile boolean hudVisible = Boolean.getBoolean("fireworks.hud");
+
+    /**
+     * repaintRequested():
+     * - counts one repaint() request, to tell how many got merged into a single paint
+     */
+    synchronized void repaintRequested() {
+        repaintRequests++;
+    }
+
+    /**
+     * frameStart():
+     * - starts timing a frame that paints frame; now is System.nanoTime()
+     */
+    synchronized void frameStart(FireworkSimulation.Snapshot frame, long now) {
+        if (lastFrameStart != 0) {
+            long interval = now - lastFrameStart;
+            frameIntervals.record(interval);
+            if (interval > FireworkSimulation.STEP_NANOS) {
+                lateFrames++;
+            }
+        }
+        if (windowStart == 0) {
+            windowStart = now;
+        }
+        lastFrameStart = now;
+        paints++;
+
+        // a new step since the last frame: count its time, and any steps in between we never showed
+        if (frame.frameCount != lastStep) {
+            if (lastStep >= 0 && frame.frameCount > lastStep+1) {
+                skippedSteps += frame.frameCount - lastStep - 1;
+            }
+            lastStep = frame.frameCount;
+            if (frame.stepNanos > 0) {
+                stepTimes.record(frame.stepNanos);
+                windowStepNanos += frame.stepNanos;
+                windowSteps++;
+            }
+        }
+
+        shells = frame.shellCount;
+        sparks = frame.sparkCount();
+    } // end of frameStart() method
+
+    /**
+     * setQuality():
+     * - the quality level the current frame is drawn at, for the HUD; null hides it
+     */
+    void setQuality(String quality) {
+        this.quality = quality;
+    }
+
+    /**
+     * lap():
+     * - adds the time since since to phase and returns the current time, for timing the next phase
+     */
+    long lap(int phase, long since) {
+        long now = System.nanoTime();
+        phaseNanos[phase] += now - since;
+        return now;
+    } // end of lap() method
+
+    /**
+     * frameDone():
+     * - finishes the frame that started at start and refreshes the HUD text when it's due
+     */
+    synchronized void frameDone(long start) {
+        long now = System.nanoTime();
+        long paint = now - start;
+        paintTimes.record(paint);
+
+        windowPaintNanos += paint;
+        windowMaxPaintNanos = Math.max(windowMaxPaintNanos, paint);
+        for (int p = 0; p < phaseNanos.length; p++) {
+            windowPhaseNanos[p] += phaseNanos[p];
+            phaseNanos[p] = 0;
+        }
+        windowFrames++;
+
+        if (now - windowStart >= HUD_REFRESH_NANOS) {
+            refreshHud(now);
+        }
+    } // end of frameDone() method
+
+    /**
+     * refreshHud():
+     * - turns the totals since the last refresh into HUD text and starts a new window
+     */
+    private void refreshHud(long now) {
+        double seconds = (now - windowStart)/1e9;
+        double frames = Math.max(1, windowFrames);
+
+        String[] lines = new String[6];
+        lines[0] = String.format("%.1f fps   paint %.2f ms avg, %.2f max", windowFrames/seconds, ms(windowPaintNanos/frames), ms(windowMaxPaintNanos));
+        lines[1] = String.format("glow %.2f  sparks %.2f  bloom %.2f  silhouettes %.2f ms", ms(windowPhaseNanos[GLOW]/frames),
+                ms(windowPhaseNanos[SPARKS]/frames), ms(windowPhaseNanos[BLOOM]/frames), ms(windowPhaseNanos[SILHOUETTES]/frames));
+        lines[2] = String.format("simulation step %.2f ms", ms(windowSteps == 0 ? 0 : windowStepNanos/(double)windowSteps));
+        lines[3] = String.format("paint p50 %.2f  p99 %.2f  p99.9 %.2f ms", ms(paintTimes.valueAt(50)), ms(paintTimes.valueAt(99)), ms(paintTimes.valueAt(99.9)));
+        lines[4] = String.format("coalesced %d  skipped steps %d  late %d", coalescedRepaints(), skippedSteps, lateFrames);
+        lines[5] = quality == null ? String.format("shells %d  sparks %d", shells, sparks)
+                : String.format("shells %d  sparks %d  quality %s", shells, sparks, quality);
+        hudLines = lines;
+
+        windowStart = now;
+        windowFrames = 0;
+        windowPaintNanos = 0;
+        windowMaxPaintNanos = 0;
+        windowStepNanos = 0;
+        windowSteps = 0;
+        Arrays.fill(windowPhaseNanos, 0);
+    } // end of refreshHud() method
+
+    /**
+     * ms():
+     * - nanoseconds as milliseconds
+     */
+    private static double ms(double nanos) {
+        return nanos/1e6;
+    }
+
+    /**
+     * coalescedRepaints():
+     * - repaint() requests that never got a paint of their own
+     */
+    private long coalescedRepaints() {
+        return Math.max(0, repaintRequests - paints);
+    }
+
+    /**
+     * hudVisible() and toggleHud():
+     * - whether the overlay is drawn, and switching it on or off
+     */
+    boolean hudVisible() {
+        return hudVisible;
+    }
+
+    void toggleHud() {
+        hudVisible = !hudVisible;
+    }
+
+    /**
+     * drawHud():
+     * - draws the overlay in the top left corner, if it's on
+     */
+    void drawHud(Graphics2D g2) {
+        if (!hudVisible) {
+            return;
+        }
+        String[] lines = hudLines;
+
+        g2.setColor(HUD_BACKGROUND);
+        g2.fillRect(8, 8, 430, lines.length*HUD_LINE_HEIGHT + 10);
+        g2.setFont(HUD_FONT);
+        g2.setColor(Color.WHITE);
+        for (int i = 0; i < lines.length; i++) {
+            g2.drawString(lines[i], 14, 8 + (i+1)*HUD_LINE_HEIGHT);
+        }
+    } // end of drawHud() method
+
+    /**
+     * writeReport():
+     * - writes the counters and the three histograms, in milliseconds, to file
+     */
+    synchronized void writeReport(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.printf("# frames painted %d, repaints requested %d, coalesced %d, skipped steps %d, late frames %d%n",
+                    paints, repaintRequests, coalescedRepaints(), skippedSteps, lateFrames);
+
+            out.printf("%n# paint time (ms)%n");
+            paintTimes.writePercentiles(out, 1e6);
+            out.printf("%n# time between paints (ms)%n");
+            frameIntervals.writePercentiles(out, 1e6);
+            out.printf("%n# simulation step time (ms)%n");
+            stepTimes.writePercentiles(out, 1e6);
+        }
+    } // end of writeReport() method
+} // end of FrameMetrics class
@@ -0,0 +1,117 @@
+package fireworks;
+
+import java.awt.AlphaComposite; // fading a sprite without redrawing it
+import java.awt.Graphics2D; // drawing the sprites
+import java.awt.GraphicsConfiguration; // making images the screen can draw fast
+import java.awt.RenderingHints; // smoother graphics
+import java.awt.Transparency; // see-through images
+import java.awt.image.BufferedImage; // the baked sprites
+
+import java.util.HashMap; // sprites by key
+
+/**
+ * GlowSpriteCache class:
+ * - bakes each firework's glow rings into a translucent image once and reuses it every frame
+ * - sprites are keyed by color, size and position style (Firework.glowKey), so identical glows share one
+ * - sprites are baked at the size they're drawn at, so a bigger picture gets sharper glows, not stretched ones;
+ *   the cache starts over when that scale changes
+ * - on screen the images come from the panel's GraphicsConfiguration so Java2D can keep them in
+ *   video memory (a "managed" image); the cache starts over if the configuration changes
+ * - brightness() gives shared composites for fading a sprite in and out without baking it again
+ */
+class GlowSpriteCache {
+    // how many brightness steps brightness() can tell apart
+    static final int BRIGHTNESS_LEVELS = 32;
+
+    // composites for every brightness step, made once
+    private static final AlphaComposite[] BRIGHTNESS = new AlphaComposite[BRIGHTNESS_LEVELS+1];
+
+    static {
+        for (int i = 0; i <= BRIGHTNESS_LEVELS; i++) {
+            BRIGHTNESS[i] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, i/(float)BRIGHTNESS_LEVELS);
+        }
+    }
+
+    // baked sprites by Firework.glowKey
+    private final HashMap<String, BufferedImage> sprites = new HashMap<>();
+
+    // the configuration the sprites were made for, null for plain BufferedImages
+    private GraphicsConfiguration config;
+
+    // pixels per world unit the sprites were baked at
+    private double scale = 1;
+
+    /**
+     * sprite():
+     * - returns firework's baked glow, width x height, baking it first if needed
+     * - gc is the configuration of whatever we're drawing onto, or null if there is none
+     */
+    BufferedImage sprite(Firework firework, GraphicsConfiguration gc) {
+        return sprite(firework, gc, 1);
+    }
+
+    /**
+     * sprite():
+     * - like above, baked scale pixels per world unit: round(width*scale) x round(height*scale)
+     */
+    BufferedImage sprite(Firework firework, GraphicsConfiguration gc, double scale) {
+        if (gc != config || scale != this.scale) {
+            sprites.clear(); // new screen or size, old images may not be compatible
+            config = gc;
+            this.scale = scale;
+        }
+
+        BufferedImage sprite = sprites.get(firework.glowKey);
+        if (sprite == null) {
+            sprite = bake(firework, gc);
+            sprites.put(firework.glowKey, sprite);
+        }
+        return sprite;
+    } // end of sprite() method
+
+    /**
+     * bake():
+     * - draws firework's glow into a new translucent image
+     */
+    private BufferedImage bake(Firework firework, GraphicsConfiguration gc) {
+        int width = Math.max(1, (int)Math.round(firework.width*scale));
+        int height = Math.max(1, (int)Math.round(firework.height*scale));
+        BufferedImage sprite;
+        if (gc != null) {
+            sprite = gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        else {
+            sprite = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+
+        Graphics2D g2 = sprite.createGraphics();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            if (scale != 1) {
+                g2.scale(scale, scale); // the rings are drawn in world units
+            }
+            firework.drawGlowRings(g2);
+        }
+        finally {
+            g2.dispose();
+        }
+        return sprite;
+    } // end of bake() method
+
+    /**
+     * size():
+     * - how many different sprites have been baked
+     */
+    int size() {
+        return sprites.size();
+    }
+
+    /**
+     * brightness():
+     * - a shared composite that draws at the given brightness from 0 to 1
+     */
+    static AlphaComposite brightness(double brightness) {
+        int level = (int)Math.round(brightness*BRIGHTNESS_LEVELS);
+        return BRIGHTNESS[Math.max(0, Math.min(level, BRIGHTNESS_LEVELS))];
+    } // end of brightness() method
+} // end of GlowSpriteCache class
@@ -0,0 +1,170 @@
+package fireworks;
+
+import java.io.PrintWriter; // writing the distribution
+
+import java.util.Arrays; // clearing the buckets
+
+/**
+ * LatencyHistogram class:
+ * - counts durations in nanoseconds into log-linear buckets, like HdrHistogram does
+ * - values below 128 get a bucket each; above that every power of two is split into 64 buckets,
+ *   so any value is off by at most 1/64 (about 1.5%) whether it's 20 microseconds or 2 seconds
+ * - recording never allocates and takes the same time for any value, so it's safe to call every frame
+ * - writePercentiles() prints the same percentile table as HdrHistogram's outputPercentileDistribution,
+ *   which its online plotter and most HDR tools can read
+ */
+class LatencyHistogram {
+    // values below this get a bucket of their own
+    static final int LINEAR_BUCKETS = 128;
+
+    // buckets per power of two above that
+    static final int SUB_BUCKETS = 64;
+
+    // largest power of two that can be told apart; anything above counts as the largest value (~18 minutes)
+    static final int MAX_MAGNITUDE = 40;
+
+    // how many values fell into each bucket; the last one holds everything too big to tell apart
+    private final long[] counts = new long[LINEAR_BUCKETS + (MAX_MAGNITUDE-7)*SUB_BUCKETS + 1];
+
+    // totals for the summary
+    private long totalCount;
+    private long max;
+    private double sum;
+    private double sumOfSquares;
+
+    /**
+     * record():
+     * - counts one value; negative values count as 0
+     */
+    void record(long value) {
+        value = Math.max(0, value);
+        counts[index(value)]++;
+
+        totalCount++;
+        max = Math.max(max, value);
+        sum += value;
+        sumOfSquares += (double)value*value;
+    } // end of record() method
+
+    /**
+     * index():
+     * - which bucket value falls into
+     */
+    private static int index(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int)value;
+        }
+        int magnitude = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_MAGNITUDE); // 7 and up
+        if (magnitude == MAX_MAGNITUDE) {
+            return LINEAR_BUCKETS + (MAX_MAGNITUDE-7)*SUB_BUCKETS; // too big, last bucket
+        }
+        int sub = (int)(value >>> (magnitude-6)); // top 7 bits, 64 to 127
+        return LINEAR_BUCKETS + (magnitude-7)*SUB_BUCKETS + (sub-SUB_BUCKETS);
+    } // end of index() method
+
+    /**
+     * highestValue():
+     * - the largest value that falls into bucket i
+     */
+    private static long highestValue(int i) {
+        if (i < LINEAR_BUCKETS) {
+            return i;
+        }
+        int magnitude = 7 + (i-LINEAR_BUCKETS)/SUB_BUCKETS;
+        long sub = SUB_BUCKETS + (i-LINEAR_BUCKETS)%SUB_BUCKETS;
+        return ((sub+1) << (magnitude-6)) - 1;
+    } // end of highestValue() method
+
+    /**
+     * valueAt():
+     * - the value that percentile percent (0 to 100) of all recorded values are at or below
+     * - 0 if nothing was recorded
+     */
+    long valueAt(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long wanted = Math.max(1, (long)Math.ceil(totalCount*Math.min(percentile, 100)/100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= wanted) {
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    } // end of valueAt() method
+
+    /**
+     * count(), max() and mean():
+     * - summary of everything recorded so far
+     */
+    long count() {
+        return totalCount;
+    }
+
+    long max() {
+        return max;
+    }
+
+    double mean() {
+        return totalCount == 0 ? 0 : sum/totalCount;
+    }
+
+    /**
+     * reset():
+     * - forgets everything recorded so far
+     */
+    void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        max = 0;
+        sum = 0;
+        sumOfSquares = 0;
+    } // end of reset() method
+
+    /**
+     * writePercentiles():
+     * - prints the distribution in HdrHistogram's text format, values divided by scale
+     *   (1e6 prints nanoseconds as milliseconds)
+     * - percentiles are listed 5 per halving of what's left: 0, 10, ... 50, 55, ... 75, 77.5, ...
+     */
+    void writePercentiles(PrintWriter out, double scale) {
+        out.printf("%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)");
+        if (totalCount > 0) {
+            double percentile = 0;
+            while (true) {
+                long value = valueAt(percentile);
+                long below = countAtOrBelow(value);
+                if (below == totalCount) {
+                    out.printf("%12.3f %2.12f %10d%n", value/scale, 1.0, totalCount);
+                    break;
+                }
+                out.printf("%12.3f %2.12f %10d %14.2f%n", value/scale, percentile/100, below, 1/(1 - percentile/100));
+
+                // next tick: 5 steps to cover each half of what's left
+                int halvings = (int)(Math.log(100/(100 - percentile))/Math.log(2)) + 1;
+                percentile += 100/(Math.pow(2, halvings)*5);
+            }
+        }
+
+        double mean = mean();
+        double deviation = totalCount == 0 ? 0 : Math.sqrt(Math.max(0, sumOfSquares/totalCount - mean*mean));
+        out.printf("#[Mean    = %12.3f, StdDeviation   = %12.3f]%n", mean/scale, deviation/scale);
+        out.printf("#[Max     = %12.3f, Total count    = %12d]%n", max/scale, totalCount);
+        out.printf("#[Buckets = %12d, SubBuckets     = %12d]%n", counts.length, SUB_BUCKETS);
+    } // end of writePercentiles() method
+
+    /**
+     * countAtOrBelow():
+     * - how many recorded values fall in buckets up to the one holding value
+     */
+    private long countAtOrBelow(long value) {
+        int last = index(value);
+        long seen = 0;
+        for (int i = 0; i <= last; i++) {
+            seen += counts[i];
+        }
+        return seen;
+    } // end of countAtOrBelow() method
+} // end of LatencyHistogram class
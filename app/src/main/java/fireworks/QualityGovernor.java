@@ -0,0 +1,187 @@
+package fireworks;
+
+import java.util.Arrays; // sorting a window of paint times
+
+/**
+ * QualityGovernor class:
+ * - holds paint time under a budget on whatever machine it runs on by stepping quality up and down
+ * - looks at paint times in windows of WINDOW_FRAMES frames; the window's 90th percentile is what counts,
+ *   so one slow frame (a garbage collection, a new glow sprite) doesn't change anything
+ * - over budget: one level down right away; under RAISE_BELOW of the budget for RAISE_WINDOWS windows in a row:
+ *   one level up; anything in between stays put, which keeps it from flipping back and forth (hysteresis)
+ * - the window right after a change is thrown away, since it still has frames from before the change
+ * - what a level changes is only how sparks and glows are drawn, never the simulation,
+ *   so the show (and a --seed replay) plays the same at every level
+ * - turned on with -Dfireworks.frameBudgetMs=N, for the window only: exports never get one, so which frames
+ *   a thread happened to render before can't change how a frame looks, and the same seed still exports the same frames
+ * - only used from the painting thread
+ */
+class QualityGovernor {
+    /**
+     * Level class:
+     * - one step of quality
+     */
+    static class Level {
+        // shown in the HUD
+        final String name;
+
+        // sparks drawn out of every 4
+        final int sparksOfFour;
+
+        // newest part of each trail that's drawn, 0 to 1; the faint tail goes first
+        final double trail;
+
+        // round ends on the spark cores and glows, the look that used to be commented out as laggier
+        final boolean roundCaps;
+
+        // glows drawn at all; they're baked sprites, so fewer rings wouldn't be cheaper, only gone is
+        final boolean glows;
+
+        // smooth edges
+        final boolean antialiasing;
+
+        Level(String name, int sparksOfFour, double trail, boolean roundCaps, boolean glows, boolean antialiasing) {
+            this.name = name;
+            this.sparksOfFour = sparksOfFour;
+            this.trail = trail;
+            this.roundCaps = roundCaps;
+            this.glows = glows;
+            this.antialiasing = antialiasing;
+        }
+
+        /**
+         * drawsSpark():
+         * - whether spark i is drawn at this level; kept sparks are spread out, so a thinned ring is still a ring
+         */
+        boolean drawsSpark(int i) {
+            return KEPT[sparksOfFour][i & 3];
+        }
+
+        /**
+         * firstSegment():
+         * - the oldest trail segment drawn, for trails of trailLength points
+         */
+        int firstSegment(int trailLength) {
+            return (int)((trailLength-1)*(1 - trail));
+        }
+    } // end of Level class
+
+    // which of every 4 sparks are drawn, for 0 to 4 of them
+    private static final boolean[][] KEPT = {
+        {false, false, false, false},
+        {true, false, false, false},
+        {true, false, true, false},
+        {true, true, true, false},
+        {true, true, true, true},
+    };
+
+    // worst to best
+    static final Level[] LEVELS = {
+        new Level("lowest", 1, 0.4, false, false, false),
+        new Level("low", 2, 0.6, false, true, false),
+        new Level("medium", 3, 0.8, false, true, true),
+        new Level("high", 4, 1, false, true, true),
+        new Level("full", 4, 1, true, true, true),
+    };
+
+    // how everything is drawn without a governor: the look the show always had
+    static final Level DEFAULT = LEVELS[3];
+
+    // frames per decision
+    static final int WINDOW_FRAMES = 30;
+
+    // a window has to be this far under budget to count toward going up
+    static final double RAISE_BELOW = 0.6;
+
+    // calm windows in a row needed to go up
+    static final int RAISE_WINDOWS = 3;
+
+    // how long painting one frame may take
+    final long budgetNanos;
+
+    // index into LEVELS; starts at the top and comes down if it has to
+    private int level = LEVELS.length-1;
+
+    // paint times of the current window
+    private final long[] window = new long[WINDOW_FRAMES];
+    private int windowCount;
+
+    // calm windows so far, and whether the current window is the one thrown away after a change
+    private int calmWindows;
+    private boolean settling;
+
+    /**
+     * constructor of QualityGovernor class:
+     * - aims for paint times of at most budgetNanos
+     */
+    QualityGovernor(long budgetNanos) {
+        if (budgetNanos <= 0) {
+            throw new IllegalArgumentException("frame budget has to be positive: " + budgetNanos);
+        }
+        this.budgetNanos = budgetNanos;
+    } // end of QualityGovernor class constructor
+
+    /**
+     * fromProperties():
+     * - a governor for -Dfireworks.frameBudgetMs, or null if it isn't set
+     */
+    static QualityGovernor fromProperties() {
+        String budget = System.getProperty("fireworks.frameBudgetMs");
+        if (budget == null) {
+            return null;
+        }
+        return new QualityGovernor((long)(Double.parseDouble(budget)*1e6));
+    } // end of fromProperties() method
+
+    /**
+     * level():
+     * - how the next frame should be drawn
+     */
+    Level level() {
+        return LEVELS[level];
+    }
+
+    /**
+     * frameDone():
+     * - counts a frame that took paintNanos to paint, and changes level at the end of a window if it has to
+     */
+    void frameDone(long paintNanos) {
+        window[windowCount++] = paintNanos;
+        if (windowCount < WINDOW_FRAMES) {
+            return;
+        }
+        windowCount = 0;
+        if (settling) {
+            settling = false; // half of this window was drawn at the old level
+            return;
+        }
+
+        Arrays.sort(window);
+        long p90 = window[WINDOW_FRAMES*9/10];
+        if (p90 > budgetNanos) {
+            calmWindows = 0;
+            change(-1);
+        }
+        else if (p90 < budgetNanos*RAISE_BELOW) {
+            if (++calmWindows >= RAISE_WINDOWS) {
+                calmWindows = 0;
+                change(+1);
+            }
+        }
+        else {
+            calmWindows = 0; // close to budget, stay here
+        }
+    } // end of frameDone() method
+
+    /**
+     * change():
+     * - moves by steps levels, staying inside LEVELS
+     */
+    private void change(int steps) {
+        int next = Math.max(0, Math.min(level + steps, LEVELS.length-1));
+        if (next != level) {
+            level = next;
+            settling = true;
+        }
+    } // end of change() method
+} // end of QualityGovernor class
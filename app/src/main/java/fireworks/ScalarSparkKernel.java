@@ -0,0 +1,19 @@
+package fireworks;
+
+/**
+ * ScalarSparkKernel class:
+ * - steps one spark at a time with SparkPool.sparkUpdate()
+ */
+class ScalarSparkKernel implements SparkKernel {
+    @Override
+    public void update(SparkPool pool, int from, int to) {
+        for (int i = from; i < to; i++) {
+            pool.sparkUpdate(i);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+} // end of ScalarSparkKernel class
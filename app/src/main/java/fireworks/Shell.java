@@ -0,0 +1,58 @@
+package fireworks;
+
+/**
+ * Shell class:
+ * - one launched firework on the show: what it is, when it burst, and its sparks
+ * - shells are recycled by the simulation, and snapshots keep their own copies
+ */
+class Shell {
+    // steps a spark lives: START_LIFE, losing LIFE_STEP each step
+    static final int SPARK_STEPS = (int)Math.ceil(SparkPool.START_LIFE/SparkPool.LIFE_STEP);
+
+    // steps the glow takes to fade out after the last spark is gone
+    static final int FADE_STEPS = 20;
+
+    // steps from burst to retirement
+    static final int LIFETIME = SPARK_STEPS + FADE_STEPS;
+
+    // what went off, null while the shell is not in use
+    Firework firework;
+    BurstPattern pattern;
+
+    // simulation step it burst at
+    int launchStep;
+
+    // its sparks
+    final SparkPool sparks;
+
+    /**
+     * constructor of Shell class:
+     * - an unused shell that can hold capacity sparks with trailLength points each
+     */
+    Shell(int capacity, int trailLength) {
+        sparks = new SparkPool(capacity, trailLength);
+    } // end of Shell class constructor
+
+    /**
+     * copyFrom():
+     * - makes this shell an exact copy of other without allocating
+     */
+    void copyFrom(Shell other) {
+        firework = other.firework;
+        pattern = other.pattern;
+        launchStep = other.launchStep;
+        sparks.copyFrom(other.sparks);
+    } // end of copyFrom() method
+
+    /**
+     * glowBrightness():
+     * - how bright (0 to 1) the glow is age steps after the burst
+     * - full while there are sparks, then fades out until the shell retires
+     */
+    static double glowBrightness(double age) {
+        if (age <= SPARK_STEPS) {
+            return 1;
+        }
+        return Math.max(0, 1 - (age - SPARK_STEPS)/FADE_STEPS);
+    } // end of glowBrightness() method
+} // end of Shell class
@@ -0,0 +1,269 @@
+package fireworks;
+
+import java.io.BufferedReader; // reading the timeline line by line
+import java.io.IOException; // reading can fail
+import java.io.InputStream; // the built-in show
+import java.io.InputStreamReader; // the built-in show as text
+
+import java.nio.charset.StandardCharsets; // timelines are UTF-8
+import java.nio.file.Files; // opening a timeline file
+import java.nio.file.Path; // where the timeline is
+
+import java.util.ArrayList; // launches while reading
+import java.util.Collections; // read-only launch list
+import java.util.Comparator; // sorting by time
+import java.util.List; // the launches
+
+/**
+ * Show class:
+ * - a timeline of launches: when each shell bursts, where, how big, what color and what pattern
+ * - read from a text file, see default.show for the format; the built-in show is the original three fireworks
+ * - a show can loop, starting over every loopSteps steps
+ * - a show can have a wind, and each launch its own drag and splitting (crossettes), see SparkPool.configure()
+ * - times are in seconds in the file and in simulation steps (33ms each) everywhere else
+ */
+class Show {
+    // the show used when none is given
+    static final String DEFAULT = "default.show";
+
+    /**
+     * Launch class:
+     * - one shell on the timeline
+     */
+    static class Launch {
+        // simulation step the shell bursts at; the simulation moves its own copies forward when the show loops
+        int step;
+
+        // what goes off
+        final Firework firework;
+        final BurstPattern pattern;
+        final int sparks;
+
+        // position in the timeline, so launches at the same step keep their order
+        final int order;
+
+        // velocity its sparks keep every step, and how many sparks each one splits into when it dies
+        final double drag;
+        final int splits;
+
+        Launch(int step, Firework firework, BurstPattern pattern, int sparks, int order) {
+            this(step, firework, pattern, sparks, order, SparkPool.DRAG, 0);
+        }
+
+        Launch(int step, Firework firework, BurstPattern pattern, int sparks, int order, double drag, int splits) {
+            this.step = step;
+            this.firework = firework;
+            this.pattern = pattern;
+            this.sparks = sparks;
+            this.order = order;
+            this.drag = drag;
+            this.splits = splits;
+        }
+
+        /**
+         * copy():
+         * - a launch the simulation can move forward without changing the show
+         */
+        Launch copy() {
+            return new Launch(step, firework, pattern, sparks, order, drag, splits);
+        }
+    } // end of Launch class
+
+    // earliest first, ties in timeline order
+    static final Comparator<Launch> BY_TIME = Comparator.<Launch>comparingInt(l -> l.step).thenComparingInt(l -> l.order);
+
+    // every launch, earliest first
+    final List<Launch> launches;
+
+    // steps until the show starts over, 0 if it doesn't
+    final int loopSteps;
+
+    // added to every spark's sideways velocity every step, positive blows right
+    final double wind;
+
+    /**
+     * constructor of Show class:
+     * - launches can be in any order; loopSteps is 0 for a show that plays once
+     */
+    Show(List<Launch> launches, int loopSteps) {
+        this(launches, loopSteps, 0);
+    } // end of Show class constructor
+
+    /**
+     * constructor of Show class:
+     * - like above, with wind blowing the whole time
+     */
+    Show(List<Launch> launches, int loopSteps, double wind) {
+        if (loopSteps < 0) {
+            throw new IllegalArgumentException("loop can't be negative");
+        }
+        if (!Double.isFinite(wind)) {
+            throw new IllegalArgumentException("wind has to be a number");
+        }
+        List<Launch> sorted = new ArrayList<>(launches);
+        sorted.sort(BY_TIME);
+        if (loopSteps > 0 && !sorted.isEmpty() && sorted.get(sorted.size()-1).step >= loopSteps) {
+            throw new IllegalArgumentException("every launch has to be before the loop starts over");
+        }
+        this.launches = Collections.unmodifiableList(sorted);
+        this.loopSteps = loopSteps;
+        this.wind = wind;
+
+        // work out every burst's velocities now, not when the shell goes off
+        for (Launch launch : sorted) {
+            BurstTemplate.of(launch.pattern, launch.sparks);
+        }
+    } // end of Show class constructor
+
+    /**
+     * maxSparks():
+     * - the most sparks any one shell of the show has
+     */
+    int maxSparks() {
+        int most = 0;
+        for (Launch launch : launches) {
+            most = Math.max(most, launch.sparks);
+        }
+        return most;
+    } // end of maxSparks() method
+
+    /**
+     * step():
+     * - the simulation step at seconds into the show
+     */
+    static int step(double seconds) {
+        return (int)Math.round(seconds*1e9/FireworkSimulation.STEP_NANOS);
+    }
+
+    /**
+     * defaultShow():
+     * - the built-in show
+     */
+    static Show defaultShow() {
+        try (InputStream in = Show.class.getResourceAsStream(DEFAULT)) {
+            if (in == null) {
+                throw new IllegalStateException("built-in show " + DEFAULT + " is missing");
+            }
+            return read(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), DEFAULT);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("can't read built-in show " + DEFAULT, e);
+        }
+    } // end of defaultShow() method
+
+    /**
+     * load():
+     * - reads a show from a timeline file
+     */
+    static Show load(Path file) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(in, file.toString());
+        }
+    } // end of load() method
+
+    /**
+     * read():
+     * - reads a timeline; source is only used in error messages
+     * - blank lines and lines starting with # are ignored
+     */
+    static Show read(BufferedReader in, String source) throws IOException {
+        List<Launch> launches = new ArrayList<>();
+        int loopSteps = 0;
+        double wind = 0;
+
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue; // blank or a comment
+            }
+
+            String[] fields = line.split("\\s+");
+            try {
+                if ("loop".equals(fields[0])) {
+                    if (fields.length != 2) {
+                        throw new IllegalArgumentException("expected: loop SECONDS");
+                    }
+                    loopSteps = step(Double.parseDouble(fields[1]));
+                }
+                else if ("wind".equals(fields[0])) {
+                    if (fields.length != 2) {
+                        throw new IllegalArgumentException("expected: wind PIXELS");
+                    }
+                    wind = Double.parseDouble(fields[1]);
+                }
+                else {
+                    launches.add(parseLaunch(fields, launches.size()));
+                }
+            }
+            catch (IllegalArgumentException e) { // NumberFormatException too
+                throw new IllegalArgumentException(source + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return new Show(launches, loopSteps, wind);
+    } // end of read() method
+
+    /**
+     * parseLaunch():
+     * - one launch line: seconds x y size #rrggbb glow pattern [sparks] [drag=D] [split=N]
+     */
+    private static Launch parseLaunch(String[] fields, int order) {
+        if (fields.length < 7) {
+            throw new IllegalArgumentException("expected: seconds x y size #rrggbb left|right|center pattern [sparks] [drag=D] [split=N]");
+        }
+        double seconds = Double.parseDouble(fields[0]);
+        if (seconds < 0) {
+            throw new IllegalArgumentException("launch time can't be negative");
+        }
+        int x = Integer.parseInt(fields[1]);
+        int y = Integer.parseInt(fields[2]);
+        int size = Integer.parseInt(fields[3]);
+        if (size <= 0) {
+            throw new IllegalArgumentException("size has to be positive");
+        }
+
+        String color = fields[4];
+        if (!color.startsWith("#") || color.length() != 7) {
+            throw new IllegalArgumentException("color has to look like #rrggbb: " + color);
+        }
+        int rgb = Integer.parseInt(color.substring(1), 16);
+
+        String glow = fields[5];
+        if (!"left".equals(glow) && !"right".equals(glow) && !"center".equals(glow)) {
+            throw new IllegalArgumentException("glow has to be left, right or center: " + glow);
+        }
+
+        Firework firework = new Firework(x, y, size, size, (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF, glow);
+        BurstPattern pattern = BurstPattern.parse(fields[6]);
+        int sparks = firework.sparkCount;
+        double drag = SparkPool.DRAG;
+        int splits = 0;
+        for (int f = 7; f < fields.length; f++) {
+            String field = fields[f];
+            if (field.startsWith("drag=")) {
+                drag = Double.parseDouble(field.substring(5));
+                if (!(drag > 0 && drag <= 1)) {
+                    throw new IllegalArgumentException("drag has to be more than 0 and at most 1: " + drag);
+                }
+            }
+            else if (field.startsWith("split=")) {
+                splits = Integer.parseInt(field.substring(6));
+                if (splits < 0 || splits > SparkPool.MAX_SPLITS) {
+                    throw new IllegalArgumentException("split has to be 0 to " + SparkPool.MAX_SPLITS + ": " + splits);
+                }
+            }
+            else if (f == 7) {
+                sparks = Integer.parseInt(field);
+            }
+            else {
+                throw new IllegalArgumentException("unknown launch option: " + field);
+            }
+        }
+        if (sparks <= 0) {
+            throw new IllegalArgumentException("sparks has to be positive");
+        }
+        return new Launch(step(seconds), firework, pattern, sparks, order, drag, splits);
+    } // end of parseLaunch() method
+} // end of Show class
@@ -0,0 +1,52 @@
+package fireworks;
+
+/**
+ * SparkKernel interface:
+ * - moves a range of sparks in a pool forward one step: records their trails, applies the pool's drag and wind and gravity,
+ *   moves them and ages them
+ * - doesn't remove dead sparks; SparkPool.removeDead() does that afterwards
+ * - picked once at startup with -Dfireworks.kernel=scalar (default) or -Dfireworks.kernel=vector
+ */
+interface SparkKernel {
+    // the kernel the simulation uses
+    SparkKernel SELECTED = select(System.getProperty("fireworks.kernel", "scalar"));
+
+    /**
+     * update():
+     * - steps sparks from (inclusive) to to (exclusive) of pool
+     */
+    void update(SparkPool pool, int from, int to);
+
+    /**
+     * name():
+     * - what the kernel is called on the command line
+     */
+    String name();
+
+    /**
+     * select():
+     * - the kernel called name
+     * - vector needs the incubating Vector API (java --add-modules jdk.incubator.vector ...);
+     *   without it the scalar kernel is used instead and a warning is printed
+     */
+    static SparkKernel select(String name) {
+        if ("scalar".equals(name)) {
+            return new ScalarSparkKernel();
+        }
+        if (!"vector".equals(name)) {
+            throw new IllegalArgumentException("unknown kernel: " + name + " (use scalar or vector)");
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            System.err.println("vector kernel needs --add-modules jdk.incubator.vector, using scalar");
+            return new ScalarSparkKernel();
+        }
+        try {
+            // loaded by name so the scalar path never touches the Vector API classes
+            return (SparkKernel) Class.forName("fireworks.VectorSparkKernel").getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("vector kernel unavailable (" + e + "), using scalar");
+            return new ScalarSparkKernel();
+        }
+    } // end of select() method
+} // end of SparkKernel interface
@@ -0,0 +1,450 @@
+package fireworks;
+
+import java.awt.Rectangle; // the area sparks can still be seen in
+
+import java.util.Arrays; // filling new sparks in bulk
+
+/**
+ * SparkPool class:
+ * - preallocated storage for every spark of one firework
+ * - replaces one Spark object per particle with parallel primitive arrays (structure of arrays)
+ * - dead sparks are recycled by swapping the last live spark into their slot,
+ *   so spawning and removing sparks never allocates or shifts a list
+ * - forces are per pool: its own drag and a sideways wind on top of gravity (see configure())
+ * - a pool can split: every burst spark that dies becomes splits smaller sparks (a crossette);
+ *   removeDead() only notes where, and spawnSplits() adds them later, in the same slots, within a budget
+ */
+class SparkPool {
+    // default trail length when a firework doesn't pick its own
+    static final int DEFAULT_TRAIL_LENGTH = 20;
+
+    // gravity pulling sparks downward each frame
+    static final double GRAVITY = 0.25;
+
+    // air resistance; velocity is multiplied by this every frame
+    static final double DRAG = 0.985;
+
+    // starting lifespan of a spark; if decrement by 2, life = 60 frames
+    static final double START_LIFE = 120;
+
+    // how much life a spark loses every frame
+    static final double LIFE_STEP = 2;
+
+    // starting lifespan of a split-off spark; 20 frames, as long as the shell's glow takes to fade (Shell.FADE_STEPS)
+    static final double SPLIT_LIFE = 40;
+
+    // how fast split-off sparks fly away from where their parent died, and how much of its speed they keep
+    static final double SPLIT_SPEED = 2.5;
+    static final double SPLIT_CARRY = 0.5;
+
+    // most sparks one dying spark can split into
+    static final int MAX_SPLITS = 8;
+
+    // how many sparks this pool can hold at once
+    final int capacity;
+
+    // how many trail points each spark in this pool remembers
+    final int trailLength;
+
+    // how many sparks are currently alive; live sparks are always indexes 0 to count-1
+    int count = 0;
+
+    // current positions
+    final double[] x;
+    final double[] y;
+
+    // velocities that adjust the positions each frame
+    final double[] xVelocity;
+    final double[] yVelocity;
+
+    // remaining lifespans
+    final double[] life;
+
+    // spark colors packed as 0xRRGGBB
+    final int[] rgb;
+
+    // 0 for a spark from the burst, 1 for one that split off; split-off sparks don't split again
+    final byte[] generation;
+
+    // this pool's forces and splitting, set per shell with configure()
+    double drag = DRAG;
+    double wind = 0;
+    int splits = 0;
+
+    // where burst sparks died since the last spawnSplits(), made the first time the pool splits
+    private double[] splitX;
+    private double[] splitY;
+    private double[] splitXVelocity;
+    private double[] splitYVelocity;
+    private int[] splitRgb;
+    private int splitCount;
+
+    /**
+     * shared trail buffer for all sparks:
+     * - spark i owns the slice [i*trailLength, (i+1)*trailLength)
+     * - each slice is a ring; trailHead[i] is the slot written next, which is also the oldest point
+     * - recording a point is O(1) no matter how long the trail is
+     */
+    final double[] trailX;
+    final double[] trailY;
+    final int[] trailHead;
+
+    /**
+     * constructor of SparkPool class:
+     * - allocates every array once, up front, for capacity sparks with the default trail length
+     */
+    SparkPool(int capacity) {
+        this(capacity, DEFAULT_TRAIL_LENGTH);
+    } // end of SparkPool class constructor
+
+    /**
+     * constructor of SparkPool class:
+     * - allocates every array once, up front, for capacity sparks with trailLength points each
+     */
+    SparkPool(int capacity, int trailLength) {
+        if (trailLength < 2) {
+            throw new IllegalArgumentException("trailLength must be at least 2 to draw a segment: " + trailLength);
+        }
+        this.capacity = capacity;
+        this.trailLength = trailLength;
+
+        x = new double[capacity];
+        y = new double[capacity];
+        xVelocity = new double[capacity];
+        yVelocity = new double[capacity];
+        life = new double[capacity];
+        rgb = new int[capacity];
+        generation = new byte[capacity];
+
+        trailX = new double[capacity*trailLength];
+        trailY = new double[capacity*trailLength];
+        trailHead = new int[capacity];
+    } // end of SparkPool class constructor
+
+    /**
+     * spawn():
+     * - creates a spark at (x,y) shooting outward with (xVelocity, yVelocity)
+     * - returns false without doing anything if the pool is already full
+     */
+    boolean spawn(double x, double y, double xVelocity, double yVelocity, int red, int green, int blue) {
+        if (count == capacity) {
+            return false; // no free slot left
+        }
+
+        int i = count++; // take the first free slot
+        this.x[i] = x;
+        this.y[i] = y;
+        this.xVelocity[i] = xVelocity;
+        this.yVelocity[i] = yVelocity;
+        this.life[i] = START_LIFE;
+        this.rgb[i] = (red << 16) | (green << 8) | blue;
+        this.generation[i] = 0;
+
+        // initialize the whole trail to the starting point
+        int base = i*trailLength;
+        for (int j = 0; j < trailLength; j++) {
+            trailX[base+j] = x;
+            trailY[base+j] = y;
+        }
+        trailHead[i] = 0;
+        return true;
+    } // end of spawn() method
+
+    /**
+     * spawnBurst():
+     * - spawns sparks sparks at (x,y) with velocities sparks long from template starting at offset,
+     *   rotated by the angle whose cos and sin are given, plus the template's lift, all multiplied by scale
+     * - all in a few straight passes over the arrays instead of one spawn() per spark
+     * - sparks that don't fit in the pool are dropped
+     */
+    void spawnBurst(BurstTemplate template, int offset, int sparks, double x, double y, double scale, double cos, double sin, int rgb) {
+        int first = count;
+        int end = Math.min(first + sparks, capacity);
+
+        Arrays.fill(this.x, first, end, x);
+        Arrays.fill(this.y, first, end, y);
+        Arrays.fill(life, first, end, START_LIFE);
+        Arrays.fill(this.rgb, first, end, rgb);
+        Arrays.fill(generation, first, end, (byte)0);
+
+        // the whole trail starts at the burst point
+        Arrays.fill(trailX, first*trailLength, end*trailLength, x);
+        Arrays.fill(trailY, first*trailLength, end*trailLength, y);
+        Arrays.fill(trailHead, first, end, 0);
+
+        double[] templateX = template.xVelocity;
+        double[] templateY = template.yVelocity;
+        double lift = template.lift;
+        for (int i = first, t = offset; i < end; i++, t++) {
+            xVelocity[i] = (templateX[t]*cos - templateY[t]*sin)*scale;
+            yVelocity[i] = (templateX[t]*sin + templateY[t]*cos + lift)*scale;
+        }
+        count = end;
+    } // end of spawnBurst() method
+
+    /**
+     * configure():
+     * - sets this pool's drag (velocity kept per frame, 0 to 1), wind (added to the sideways velocity every frame)
+     *   and how many sparks each burst spark splits into when it dies (0 for none)
+     */
+    void configure(double drag, double wind, int splits) {
+        if (!(drag > 0 && drag <= 1) || !Double.isFinite(wind)) {
+            throw new IllegalArgumentException("drag has to be in (0, 1] and wind finite: " + drag + ", " + wind);
+        }
+        if (splits < 0 || splits > MAX_SPLITS) {
+            throw new IllegalArgumentException("splits has to be 0 to " + MAX_SPLITS + ": " + splits);
+        }
+        this.drag = drag;
+        this.wind = wind;
+        this.splits = splits;
+        if (splits > 0 && splitX == null) {
+            splitX = new double[capacity];
+            splitY = new double[capacity];
+            splitXVelocity = new double[capacity];
+            splitYVelocity = new double[capacity];
+            splitRgb = new int[capacity];
+        }
+        splitCount = 0;
+    } // end of configure() method
+
+    /**
+     * trailUpdate():
+     * - overwrites spark i's oldest trail point with its current position and advances the head
+     */
+    void trailUpdate(int i) {
+        int head = trailHead[i];
+        trailX[i*trailLength+head] = x[i];
+        trailY[i*trailLength+head] = y[i];
+
+        // wrap around to the start of the slice instead of shifting anything
+        head++;
+        if (head == trailLength) {
+            head = 0;
+        }
+        trailHead[i] = head;
+    } // end of trailUpdate() method
+
+    /**
+     * trailIndex():
+     * - returns where spark i's j-th trail point lives in trailX/trailY
+     * - j = 0 is the oldest point (tail) and j = trailLength-1 is the newest (head)
+     */
+    int trailIndex(int i, int j) {
+        int slot = trailHead[i]+j;
+        if (slot >= trailLength) {
+            slot -= trailLength;
+        }
+        return i*trailLength+slot;
+    } // end of trailIndex() method
+
+    /**
+     * pointX() and pointY():
+     * - spark i's j-th trail point, oldest first, where j = trailLength is its current position
+     * - handy for drawing in-between frames, where each point slides toward the next one
+     */
+    double pointX(int i, int j) {
+        return j == trailLength ? x[i] : trailX[trailIndex(i, j)];
+    }
+
+    double pointY(int i, int j) {
+        return j == trailLength ? y[i] : trailY[trailIndex(i, j)];
+    }
+
+    /**
+     * sparkUpdate():
+     * - applies cool physics to spark i, moves it, and fades it out!
+     */
+    void sparkUpdate(int i) {
+        trailUpdate(i); // save current position into trail
+
+        // sparks slow down slightly each frame like air resistance
+        xVelocity[i]*=drag;
+        yVelocity[i]*=drag;
+
+        xVelocity[i]+=wind; // pushes sparks sideways
+        yVelocity[i]+=GRAVITY; // pulls sparks downward
+
+        // move according to velocity
+        x[i]+=xVelocity[i];
+        y[i]+=yVelocity[i];
+
+        life[i]-=LIFE_STEP; // lifespan decreases so spark fades out over time
+    } // end of sparkUpdate() method
+
+    /**
+     * isDead():
+     * - returns true when spark i is done/"dead" and should be removed
+     */
+    boolean isDead(int i) {
+        return life[i] <= 0;
+    }
+
+    /**
+     * isGone():
+     * - returns true when spark i is dead, or it and its whole trail have left visible and can never come back:
+     *   gone past the left or right edge (drag never turns a spark around) or falling below the bottom
+     *   (gravity never lifts it again); above the top doesn't count, it falls back in
+     * - with wind a spark can turn around sideways, so then only the bottom counts
+     * - visible null only checks life
+     */
+    boolean isGone(int i, Rectangle visible) {
+        if (life[i] <= 0) {
+            return true;
+        }
+        if (visible == null) {
+            return false;
+        }
+
+        // sideways motion only ever slows down, so the tail being past the same edge means the whole trail is
+        int tail = trailIndex(i, 0);
+        if (x[i] < visible.x && xVelocity[i] <= 0 && wind <= 0 && trailX[tail] < visible.x) {
+            return true;
+        }
+        int right = visible.x + visible.width;
+        if (x[i] > right && xVelocity[i] >= 0 && wind >= 0 && trailX[tail] > right) {
+            return true;
+        }
+
+        // a falling trail can still reach back over its top, so every point has to be below
+        int bottom = visible.y + visible.height;
+        if (y[i] <= bottom || yVelocity[i] < 0) {
+            return false;
+        }
+        int base = i*trailLength;
+        for (int j = 0; j < trailLength; j++) {
+            if (trailY[base+j] <= bottom) {
+                return false;
+            }
+        }
+        return true;
+    } // end of isGone() method
+
+    /**
+     * remove():
+     * - recycles spark i by moving the last live spark into its slot
+     * - when walking the pool backwards the moved spark was already visited, so nothing is skipped
+     */
+    void remove(int i) {
+        int last = --count;
+        if (i == last) {
+            return; // removing the last spark, nothing to move
+        }
+
+        x[i] = x[last];
+        y[i] = y[last];
+        xVelocity[i] = xVelocity[last];
+        yVelocity[i] = yVelocity[last];
+        life[i] = life[last];
+        rgb[i] = rgb[last];
+        generation[i] = generation[last];
+
+        // the ring is copied as is, so the head index stays valid
+        System.arraycopy(trailX, last*trailLength, trailX, i*trailLength, trailLength);
+        System.arraycopy(trailY, last*trailLength, trailY, i*trailLength, trailLength);
+        trailHead[i] = trailHead[last];
+    } // end of remove() method
+
+    /**
+     * removeDead():
+     * - recycles every dead spark's slot
+     * - walks backwards, so every spark swapped into a freed slot was already checked
+     */
+    void removeDead() {
+        removeDead(null);
+    }
+
+    /**
+     * removeDead():
+     * - like above, also recycling sparks that left visible for good (see isGone()); null only checks life
+     * - burst sparks that died of age in a splitting pool are noted for spawnSplits()
+     */
+    void removeDead(Rectangle visible) {
+        for (int i = count-1; i >= 0; i--) {
+            if (isGone(i, visible)) {
+                if (splits > 0 && generation[i] == 0 && life[i] <= 0) {
+                    int s = splitCount++;
+                    splitX[s] = x[i];
+                    splitY[s] = y[i];
+                    splitXVelocity[s] = xVelocity[i];
+                    splitYVelocity[s] = yVelocity[i];
+                    splitRgb[s] = rgb[i];
+                }
+                remove(i);
+            }
+        }
+    } // end of removeDead() method
+
+    /**
+     * spawnSplits():
+     * - splits every spark noted by removeDead() into splits sparks flying out evenly around where it died,
+     *   as long as the pool has room and budget (sparks) lasts; the rest just die
+     * - returns what's left of budget; nothing is random, so it's the same every run
+     */
+    int spawnSplits(int budget) {
+        int n = splitCount;
+        splitCount = 0;
+        for (int s = 0; s < n; s++) {
+            for (int k = 0; k < splits; k++) {
+                if (budget == 0 || count == capacity) {
+                    return budget;
+                }
+                // a cross for 4, turned half a step so none of them goes straight up
+                double angle = (k + 0.5)*2*Math.PI/splits;
+                int i = count;
+                spawn(splitX[s], splitY[s],
+                        splitXVelocity[s]*SPLIT_CARRY + Math.cos(angle)*SPLIT_SPEED,
+                        splitYVelocity[s]*SPLIT_CARRY + Math.sin(angle)*SPLIT_SPEED,
+                        (splitRgb[s] >> 16) & 0xFF, (splitRgb[s] >> 8) & 0xFF, splitRgb[s] & 0xFF);
+                life[i] = SPLIT_LIFE;
+                generation[i] = 1;
+                budget--;
+            }
+        }
+        return budget;
+    } // end of spawnSplits() method
+
+    /**
+     * copyFrom():
+     * - makes this pool an exact copy of other's live sparks without allocating
+     * - both pools must have the same capacity and trail length
+     */
+    void copyFrom(SparkPool other) {
+        if (other.capacity != capacity || other.trailLength != trailLength) {
+            throw new IllegalArgumentException("pools must have the same capacity and trail length");
+        }
+        int n = other.count;
+        count = n;
+
+        System.arraycopy(other.x, 0, x, 0, n);
+        System.arraycopy(other.y, 0, y, 0, n);
+        System.arraycopy(other.xVelocity, 0, xVelocity, 0, n);
+        System.arraycopy(other.yVelocity, 0, yVelocity, 0, n);
+        System.arraycopy(other.life, 0, life, 0, n);
+        System.arraycopy(other.rgb, 0, rgb, 0, n);
+        System.arraycopy(other.generation, 0, generation, 0, n);
+        System.arraycopy(other.trailX, 0, trailX, 0, n*trailLength);
+        System.arraycopy(other.trailY, 0, trailY, 0, n*trailLength);
+        System.arraycopy(other.trailHead, 0, trailHead, 0, n);
+
+        // forces too, but nothing waiting to split: copies are only drawn
+        drag = other.drag;
+        wind = other.wind;
+        splits = other.splits;
+    } // end of copyFrom() method
+
+    /**
+     * clear():
+     * - removes every spark at once
+     */
+    void clear() {
+        count = 0;
+    }
+
+    /**
+     * isEmpty():
+     * - returns true when there are no live sparks left
+     */
+    boolean isEmpty() {
+        return count == 0;
+    }
+} // end of SparkPool class
@@ -0,0 +1,207 @@
+package fireworks;
+
+import java.awt.Rectangle; // where sparks can still be seen
+
+import java.util.Arrays; // growing the work lists
+import java.util.concurrent.Phaser; // the per-step barrier
+import java.util.concurrent.atomic.AtomicInteger; // handing out work
+
+/**
+ * SparkWorkers class:
+ * - steps every active shell's sparks on several threads: the simulation thread plus threads-1 workers
+ * - each step is cut into chunks of at most CHUNK_SPARKS sparks of one shell, so a small shell is one chunk
+ *   and a huge finale shell is spread over every thread; threads take the next chunk until none are left
+ * - three barriers per step: go, every chunk stepped, every dead spark removed;
+ *   after the last one the simulation thread has the whole step to itself and publishes it to the painter
+ * - nothing random happens here and each spark is stepped on its own, so the result is bit-for-bit
+ *   the same for any number of threads or any chunk size; dead sparks are removed one whole shell at a time,
+ *   in the same order as on one thread
+ * - sparks that left the visible area for good are removed with the dead ones
+ * - workers are daemon threads and wait at the barrier between steps; with one thread everything runs inline
+ * - shutdown() ends the workers; if a chunk throws on any thread the barrier is ended too, so nobody waits
+ *   forever for a thread that's gone, and the simulation thread's update() throws instead of hanging
+ * - pick the thread count with -Dfireworks.simThreads=N (default 1)
+ */
+class SparkWorkers {
+    // threads used when none are given
+    static final int THREADS = Math.max(1, Integer.getInteger("fireworks.simThreads", 1));
+
+    // most sparks in one chunk; a multiple of every vector width so chunks split on whole lanes
+    static final int CHUNK_SPARKS = 4096;
+
+    // simulation thread plus workers
+    final int threads;
+
+    // what steps each chunk
+    private final SparkKernel kernel;
+
+    // sparks that leave this for good are removed early, null to keep them until they die
+    private final Rectangle visible;
+
+    // everyone arrives here three times a step
+    private final Phaser barrier;
+
+    // this step's chunks: chunk c is sparks chunkFrom[c] to chunkTo[c] of chunkPool[c]
+    private SparkPool[] chunkPool = new SparkPool[64];
+    private int[] chunkFrom = new int[64];
+    private int[] chunkTo = new int[64];
+    private int chunkCount;
+
+    // this step's pools, swept for dead sparks once every chunk is done
+    private SparkPool[] pools = new SparkPool[16];
+    private int poolCount;
+
+    // next chunk and pool nobody has taken yet
+    private final AtomicInteger nextChunk = new AtomicInteger();
+    private final AtomicInteger nextPool = new AtomicInteger();
+
+    // what ended the barrier if a thread failed, null if it's running or was shut down
+    private volatile Throwable failure;
+
+    /**
+     * constructor of SparkWorkers class:
+     * - starts threads-1 worker threads that step sparks with kernel
+     * - visible: sparks leaving it for good are removed before they die, null keeps every spark until then
+     */
+    SparkWorkers(int threads, SparkKernel kernel, Rectangle visible) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads has to be at least 1: " + threads);
+        }
+        this.threads = threads;
+        this.kernel = kernel;
+        this.visible = visible;
+        barrier = new Phaser(threads);
+        for (int w = 1; w < threads; w++) {
+            Thread worker = new Thread(this::work, "spark-worker-" + w);
+            worker.setDaemon(true); // don't keep the program alive after the window closes
+            worker.start();
+        }
+    } // end of SparkWorkers class constructor
+
+    /**
+     * update():
+     * - steps the sparks of count shells of ring starting at head, and removes the dead ones
+     * - returns once every thread is done; only call this from the simulation thread
+     */
+    void update(Shell[] ring, int head, int count) {
+        plan(ring, head, count);
+        if (threads == 1) {
+            stepChunks();
+            sweepPools();
+            return;
+        }
+        try {
+            await(); // go
+            stepChunks();
+            await(); // every spark stepped
+            sweepPools();
+            await(); // every pool swept, the step is ours again
+        }
+        catch (RuntimeException | Error e) {
+            fail(e);
+            throw e;
+        }
+    } // end of update() method
+
+    /**
+     * await():
+     * - the simulation thread's side of the barrier; throws if the workers were shut down or one of them failed
+     */
+    private void await() {
+        if (barrier.arriveAndAwaitAdvance() < 0) {
+            throw new IllegalStateException(failure == null ? "spark workers were shut down" : "a spark worker failed", failure);
+        }
+    } // end of await() method
+
+    /**
+     * fail():
+     * - ends the barrier because a thread failed, so every other thread stops waiting for it
+     */
+    private void fail(Throwable e) {
+        if (!barrier.isTerminated()) {
+            failure = e;
+            barrier.forceTermination();
+        }
+    } // end of fail() method
+
+    /**
+     * shutdown():
+     * - ends the worker threads once they're between steps; update() can't be called after this
+     */
+    void shutdown() {
+        barrier.forceTermination();
+    } // end of shutdown() method
+
+    /**
+     * plan():
+     * - cuts this step's shells into chunks; the work lists only grow when the show gets bigger than ever before
+     */
+    private void plan(Shell[] ring, int head, int count) {
+        chunkCount = 0;
+        poolCount = 0;
+        for (int k = 0; k < count; k++) {
+            SparkPool pool = ring[(head+k) % ring.length].sparks;
+            if (poolCount == pools.length) {
+                pools = Arrays.copyOf(pools, pools.length*2);
+            }
+            pools[poolCount++] = pool;
+
+            for (int from = 0; from < pool.count; from += CHUNK_SPARKS) {
+                if (chunkCount == chunkPool.length) {
+                    chunkPool = Arrays.copyOf(chunkPool, chunkCount*2);
+                    chunkFrom = Arrays.copyOf(chunkFrom, chunkCount*2);
+                    chunkTo = Arrays.copyOf(chunkTo, chunkCount*2);
+                }
+                chunkPool[chunkCount] = pool;
+                chunkFrom[chunkCount] = from;
+                chunkTo[chunkCount] = Math.min(from + CHUNK_SPARKS, pool.count);
+                chunkCount++;
+            }
+        }
+        nextChunk.set(0);
+        nextPool.set(0);
+    } // end of plan() method
+
+    /**
+     * stepChunks():
+     * - takes chunks until there are none left
+     */
+    private void stepChunks() {
+        for (int c = nextChunk.getAndIncrement(); c < chunkCount; c = nextChunk.getAndIncrement()) {
+            kernel.update(chunkPool[c], chunkFrom[c], chunkTo[c]);
+        }
+    } // end of stepChunks() method
+
+    /**
+     * sweepPools():
+     * - takes whole pools until there are none left and recycles their dead and gone sparks
+     */
+    private void sweepPools() {
+        for (int p = nextPool.getAndIncrement(); p < poolCount; p = nextPool.getAndIncrement()) {
+            pools[p].removeDead(visible);
+        }
+    } // end of sweepPools() method
+
+    /**
+     * work():
+     * - a worker's loop: wait for a step, help with it, repeat until the barrier is ended
+     */
+    private void work() {
+        try {
+            while (barrier.arriveAndAwaitAdvance() >= 0) { // wait for the simulation to plan a step
+                stepChunks();
+                if (barrier.arriveAndAwaitAdvance() < 0) {
+                    return;
+                }
+                sweepPools();
+                if (barrier.arriveAndAwaitAdvance() < 0) {
+                    return;
+                }
+            }
+        }
+        catch (RuntimeException | Error e) {
+            fail(e); // the thread dies with e, but nobody is left waiting for it
+            throw e;
+        }
+    } // end of work() method
+} // end of SparkWorkers class
@@ -0,0 +1,159 @@
+package fireworks;
+
+import java.awt.Graphics; // for drawing basic shapes
+import java.awt.Graphics2D; // for more complex graphics
+import java.awt.GraphicsDevice; // the screens a wall can go on
+import java.awt.GraphicsEnvironment; // finding the screens
+import java.awt.Rectangle; // a tile's part of the world
+import java.awt.event.ActionEvent; // the HUD key was pressed
+
+import javax.swing.AbstractAction; // toggling the HUD
+import javax.swing.JComponent; // key bindings while the window is focused
+import javax.swing.JFrame; // one window per tile
+import javax.swing.JPanel; // what each tile draws on
+import javax.swing.KeyStroke; // the HUD key
+import javax.swing.Timer; // repainting every tile together
+
+/**
+ * TileWall class:
+ * - plays one show on a wall of windows, each showing its own tile of the world (see FireworkScene.tiles())
+ * - one simulation for the whole wall; every timer tick takes one snapshot and hands the same one
+ *   to every tile, so all of them show the same frame and sparks cross from one to the next without a seam
+ * - with at least as many screens as tiles, tile i's window fills screen i and the tile is scaled up to fit it
+ *   (centered, with bars if the screen is another shape); otherwise the windows are tile-sized, 1:1,
+ *   and laid out where their tiles are, so on one screen they look like the whole picture
+ * - Swing paints one window at a time, so tiles here take turns; FrameExporter --tiles renders them in parallel
+ * - with -Dfireworks.frameBudgetMs one QualityGovernor runs the whole wall: every tick hands every tile the same level,
+ *   so nothing changes across a seam, and the budget is for all the tiles of a frame together
+ * - started with java -jar fireworks.jar --tiles 2x1
+ */
+class TileWall {
+    // same repaint rate as the single window
+    static final int REPAINT_MILLIS = FireworkArt.MyJPanel.REPAINT_MILLIS;
+
+    // the shared simulation
+    private final FireworkSimulation simulation;
+
+    // one panel per tile
+    private final TilePanel[] panels;
+
+    // picks one quality level for every tile, null without -Dfireworks.frameBudgetMs
+    private final QualityGovernor governor = QualityGovernor.fromProperties();
+
+    /**
+     * TilePanel class:
+     * - one tile of the wall, with its own scene (scenes keep per-thread caches and their own metrics)
+     */
+    static class TilePanel extends JPanel {
+        // what this tile draws
+        final FireworkScene scene = new FireworkScene();
+        final Rectangle view;
+
+        // the frame every tile is showing right now
+        private FireworkSimulation.Snapshot frame;
+        private double t;
+
+        // time spent painting since the last tick
+        private long paintNanos;
+
+        TilePanel(Rectangle view) {
+            this.view = view;
+        }
+
+        /**
+         * paintComponent:
+         * - draws this tile of whatever frame the wall handed out last, scaled to fill the panel
+         */
+        @Override
+        public void paintComponent(Graphics g) {
+            if (frame == null) {
+                return; // nothing handed out yet
+            }
+            long began = System.nanoTime();
+            scene.paintView((Graphics2D) g, frame, t, getGraphicsConfiguration(), view, getWidth(), getHeight());
+            paintNanos += System.nanoTime() - began;
+        } // end of the paintComponent() method
+    } // end of TilePanel class
+
+    /**
+     * constructor of TileWall class:
+     * - opens a window per tile of layout (e.g. "2x1") playing show with bursts from seed
+     */
+    TileWall(Show show, long seed, String layout) {
+        Rectangle[] tiles = FireworkScene.tiles(layout);
+        simulation = new FireworkScene().newSimulation(show, seed);
+        panels = new TilePanel[tiles.length];
+
+        GraphicsDevice[] screens = GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices();
+        boolean screenEach = screens.length >= tiles.length;
+        for (int i = 0; i < tiles.length; i++) {
+            TilePanel panel = new TilePanel(tiles[i]);
+            panel.setOpaque(true);
+            panel.setBackground(FireworkScene.BACKGROUND);
+            panels[i] = panel;
+
+            JFrame window = new JFrame("Watching the Fireworks " + (i+1) + "/" + tiles.length);
+            window.setUndecorated(true); // no title bars between the tiles
+            window.setContentPane(panel);
+            window.setResizable(false);
+            window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            Rectangle screen = screens[screenEach ? i : 0].getDefaultConfiguration().getBounds();
+            if (screenEach) {
+                window.setBounds(screen); // the whole screen, the tile scales to it
+            }
+            else {
+                window.setBounds(screen.x + tiles[i].x, screen.y + tiles[i].y, tiles[i].width, tiles[i].height);
+            }
+
+            // H toggles every tile's HUD
+            panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('h'), "toggleHud");
+            panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('H'), "toggleHud");
+            panel.getActionMap().put("toggleHud", new AbstractAction() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    for (TilePanel p : panels) {
+                        p.scene.metrics.toggleHud();
+                    }
+                }
+            });
+            window.setVisible(true);
+        }
+        FireworkArt.reportOnExit(panels[0].scene.metrics);
+
+        simulation.start();
+        new Timer(REPAINT_MILLIS, e -> tick()).start();
+    } // end of TileWall class constructor
+
+    /**
+     * tick():
+     * - hands the newest frame to every tile and repaints them all; on the event thread, like their paints,
+     *   so the frame can't change until every tile has drawn it
+     * - with a governor, the tiles' paint times since the last tick count as one frame, and its level goes to every tile
+     */
+    private void tick() {
+        QualityGovernor.Level level = null;
+        if (governor != null) {
+            long wallNanos = 0;
+            for (TilePanel panel : panels) {
+                wallNanos += panel.paintNanos;
+                panel.paintNanos = 0;
+            }
+            if (wallNanos > 0) { // otherwise nothing was painted since the last tick
+                governor.frameDone(wallNanos);
+            }
+            level = governor.level();
+        }
+
+        FireworkSimulation.Snapshot frame = simulation.latest();
+        double t = frame.interpolation(System.nanoTime());
+        for (TilePanel panel : panels) {
+            panel.frame = frame;
+            panel.t = t;
+            if (level != null) {
+                panel.scene.useQuality(level);
+            }
+            panel.scene.metrics.repaintRequested();
+            panel.repaint();
+        }
+    } // end of tick() method
+} // end of TileWall class
@@ -0,0 +1,182 @@
+package fireworks;
+
+import java.awt.BasicStroke; // flat or round segment ends
+import java.awt.Graphics2D; // drawing the batched trails
+import java.awt.geom.Path2D; // one polyline per group of segments, when asked for
+
+import java.util.Arrays; // growing the segment arrays
+
+/**
+ * TrailBatch class:
+ * - collects every trail segment of one firework for a frame, then draws them all at once
+ * - segments are grouped by (trail position, alpha level): the same stroke and the same color
+ * - each group sets its stroke and color once, instead of once per segment
+ * - by default a group is drawn as a run of drawLine calls; with -Dfireworks.trailPaths=true it is
+ *   drawn as one Path2D instead, which was measured ~3x slower under antialiased software rendering
+ *   (a big, sparse path costs more to rasterize than many tiny lines) but can win on other pipelines
+ * - segment arrays and the path are kept between frames, so steady-state batching doesn't allocate
+ */
+class TrailBatch implements TrailSink {
+    // draw each group as one Path2D instead of separate lines
+    static final boolean USE_PATHS = Boolean.getBoolean("fireworks.trailPaths");
+
+    // cached strokes and colors of this firework
+    final TrailPalette palette;
+
+    // number of segments in a trail, one stroke per segment
+    private final int segments;
+
+    // queued segment coordinates (x1, y1, x2, y2, ...), [segment][alpha level], made the first time they're used
+    private final int[][][] coreLines;
+    private final int[][][] glowLines;
+
+    // how many coordinates are queued in each group
+    private final int[][] coreLineCount;
+    private final int[][] glowLineCount;
+
+    // which alpha levels of each segment have something to draw this frame
+    private final int[][] coreUsed;
+    private final int[][] glowUsed;
+    private final int[] coreUsedCount;
+    private final int[] glowUsedCount;
+
+    // reused for USE_PATHS
+    private final Path2D.Float path = new Path2D.Float();
+
+    // how many Graphics2D draw calls the last flush made, handy to compare against segment counts
+    private int lastDrawCalls;
+
+    /**
+     * constructor of TrailBatch class:
+     * - sizes the groups for the trail length the palette was built for
+     */
+    TrailBatch(TrailPalette palette) {
+        this.palette = palette;
+        this.segments = palette.coreStrokes.length;
+
+        coreLines = new int[segments][256][];
+        glowLines = new int[segments][TrailPalette.GLOW_ALPHA+1][];
+        coreLineCount = new int[segments][256];
+        glowLineCount = new int[segments][TrailPalette.GLOW_ALPHA+1];
+        coreUsed = new int[segments][256];
+        glowUsed = new int[segments][TrailPalette.GLOW_ALPHA+1];
+        coreUsedCount = new int[segments];
+        glowUsedCount = new int[segments];
+    } // end of TrailBatch class constructor
+
+    /**
+     * add():
+     * - queues segment j of a trail, from (x1,y1) to (x2,y2), at an alpha from 0 to 1
+     * - fully transparent parts are skipped since they wouldn't show up anyway
+     */
+    @Override
+    public void add(int j, int x1, int y1, int x2, int y2, float alpha) {
+        int coreLevel = TrailPalette.coreLevel(alpha);
+        if (coreLevel > 0) {
+            if (coreLineCount[j][coreLevel] == 0) {
+                coreUsed[j][coreUsedCount[j]++] = coreLevel; // first segment in this group this frame
+            }
+            coreLines[j][coreLevel] = queue(coreLines[j][coreLevel], coreLineCount[j], coreLevel, x1, y1, x2, y2);
+        }
+
+        int glowLevel = TrailPalette.glowLevel(alpha);
+        if (glowLevel > 0) {
+            if (glowLineCount[j][glowLevel] == 0) {
+                glowUsed[j][glowUsedCount[j]++] = glowLevel;
+            }
+            glowLines[j][glowLevel] = queue(glowLines[j][glowLevel], glowLineCount[j], glowLevel, x1, y1, x2, y2);
+        }
+    } // end of add() method
+
+    /**
+     * queue():
+     * - appends one segment to a group, growing its array only when it's full
+     * - returns the (possibly new) array
+     */
+    private static int[] queue(int[] lines, int[] counts, int level, int x1, int y1, int x2, int y2) {
+        int n = counts[level];
+        if (lines == null) {
+            lines = new int[64];
+        }
+        else if (n+4 > lines.length) {
+            lines = Arrays.copyOf(lines, lines.length*2);
+        }
+        lines[n] = x1;
+        lines[n+1] = y1;
+        lines[n+2] = x2;
+        lines[n+3] = y2;
+        counts[level] = n+4;
+        return lines;
+    } // end of queue() method
+
+    /**
+     * flush():
+     * - draws every queued group and empties the batch for the next frame
+     * - goes from tail to head, cores before glows, like drawing one segment at a time did
+     */
+    void flush(Graphics2D g2) {
+        flush(g2, false);
+    }
+
+    /**
+     * flush():
+     * - like above, with round ends on every segment if roundCaps
+     */
+    void flush(Graphics2D g2, boolean roundCaps) {
+        BasicStroke[] coreStrokes = roundCaps ? palette.roundCoreStrokes : palette.coreStrokes;
+        BasicStroke[] glowStrokes = roundCaps ? palette.roundGlowStrokes : palette.glowStrokes;
+        int drawCalls = 0;
+        for (int j = 0; j < segments; j++) {
+            // bright white cores
+            g2.setStroke(coreStrokes[j]);
+            for (int k = 0; k < coreUsedCount[j]; k++) {
+                int level = coreUsed[j][k];
+                g2.setColor(palette.core(level));
+                drawCalls += drawGroup(g2, coreLines[j][level], coreLineCount[j][level]);
+                coreLineCount[j][level] = 0;
+            }
+            coreUsedCount[j] = 0;
+
+            // soft glows
+            g2.setStroke(glowStrokes[j]);
+            for (int k = 0; k < glowUsedCount[j]; k++) {
+                int level = glowUsed[j][k];
+                g2.setColor(palette.glow(level));
+                drawCalls += drawGroup(g2, glowLines[j][level], glowLineCount[j][level]);
+                glowLineCount[j][level] = 0;
+            }
+            glowUsedCount[j] = 0;
+        }
+        lastDrawCalls = drawCalls;
+    } // end of flush() method
+
+    /**
+     * drawGroup():
+     * - draws the first n/4 queued segments of lines with the current stroke and color
+     * - returns how many draw calls it took
+     */
+    private int drawGroup(Graphics2D g2, int[] lines, int n) {
+        if (USE_PATHS) {
+            for (int i = 0; i < n; i += 4) {
+                path.moveTo(lines[i], lines[i+1]);
+                path.lineTo(lines[i+2], lines[i+3]);
+            }
+            g2.draw(path);
+            path.reset();
+            return 1;
+        }
+
+        for (int i = 0; i < n; i += 4) {
+            g2.drawLine(lines[i], lines[i+1], lines[i+2], lines[i+3]);
+        }
+        return n/4;
+    } // end of drawGroup() method
+
+    /**
+     * lastDrawCalls():
+     * - how many Graphics2D draw calls the last flush() needed
+     */
+    int lastDrawCalls() {
+        return lastDrawCalls;
+    }
+} // end of TrailBatch class
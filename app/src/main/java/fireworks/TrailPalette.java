@@ -0,0 +1,149 @@
+package fireworks;
+
+import java.awt.BasicStroke; // trail thickness
+import java.awt.Color; // trail colors
+
+/**
+ * TrailPalette class:
+ * - every BasicStroke and Color the trail loop needs for one firework, made once and reused every frame
+ * - strokes are looked up by trail position, colors by their alpha level
+ * - the alpha is already rounded to an int when it is drawn, so cached colors look exactly the same
+ */
+class TrailPalette {
+    // stroke widths are rounded to this many pixels so fireworks can share strokes
+    static final float STROKE_STEP = 0.25f;
+
+    // widest stroke we cache; the thickest glow is (0.5 + 5)*3 = 16.5
+    static final float MAX_STROKE_WIDTH = 32;
+
+    // highest glow alpha level; glow colors are cached for 0..GLOW_ALPHA
+    static final int GLOW_ALPHA = 50;
+
+    // below this alpha neither the core nor the glow has a level above 0, so nothing shows up
+    static final float MIN_ALPHA = 1/255f;
+
+    // glow stroke is this many times as wide as the core
+    static final float GLOW_WIDTH = 3;
+
+    // shared quantized strokes, index = width/STROKE_STEP, with flat and with round ends
+    private static final BasicStroke[] STROKES = new BasicStroke[(int)(MAX_STROKE_WIDTH/STROKE_STEP)+1];
+    private static final BasicStroke[] ROUND_STROKES = new BasicStroke[STROKES.length];
+
+    // white spark cores for every alpha 0-255, the same for every firework
+    private static final Color[] WHITE = new Color[256];
+
+    static {
+        for (int i = 0; i < STROKES.length; i++) {
+            STROKES[i] = new BasicStroke(i*STROKE_STEP);
+            // round sparks; laggier, so only used when QualityGovernor says there's time
+            ROUND_STROKES[i] = new BasicStroke(i*STROKE_STEP, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+        }
+        for (int a = 0; a < WHITE.length; a++) {
+            WHITE[a] = new Color(255, 255, 255, a);
+        }
+    }
+
+    // stroke for each trail segment j, from tail (0) to head (trailLength-2)
+    final BasicStroke[] coreStrokes;
+    final BasicStroke[] glowStrokes;
+
+    // the same with round ends
+    final BasicStroke[] roundCoreStrokes;
+    final BasicStroke[] roundGlowStrokes;
+
+    // glow in this firework's color for every glow alpha 0-GLOW_ALPHA
+    private final Color[] glowColors = new Color[GLOW_ALPHA+1];
+
+    /**
+     * constructor of TrailPalette class:
+     * - builds the strokes for a trail of trailLength points and the glow ramp for (red, green, blue)
+     */
+    TrailPalette(int trailLength, int red, int green, int blue) {
+        this(trailLength, red, green, blue, 1);
+    } // end of TrailPalette class constructor
+
+    /**
+     * constructor of TrailPalette class:
+     * - like above, for a picture drawn scale pixels per world unit; every stroke is scale times as wide
+     */
+    TrailPalette(int trailLength, int red, int green, int blue, double scale) {
+        coreStrokes = new BasicStroke[trailLength-1];
+        glowStrokes = new BasicStroke[trailLength-1];
+        roundCoreStrokes = new BasicStroke[trailLength-1];
+        roundGlowStrokes = new BasicStroke[trailLength-1];
+        for (int j = 0; j < trailLength-1; j++) {
+            // same taper as the trail loop: 0.5 at the tail up to 5.5 at the head
+            double pos = j/(double)(trailLength-1);
+            float strokeWidth = (float)((0.5 + 5*pos)*scale);
+            coreStrokes[j] = stroke(strokeWidth);
+            glowStrokes[j] = stroke(strokeWidth*GLOW_WIDTH);
+            roundCoreStrokes[j] = stroke(strokeWidth, true);
+            roundGlowStrokes[j] = stroke(strokeWidth*GLOW_WIDTH, true);
+        }
+
+        for (int a = 0; a <= GLOW_ALPHA; a++) {
+            glowColors[a] = new Color(red, green, blue, a);
+        }
+    } // end of TrailPalette class constructor
+
+    /**
+     * stroke():
+     * - returns the shared stroke closest to width
+     */
+    static BasicStroke stroke(float width) {
+        return stroke(width, false);
+    }
+
+    /**
+     * stroke():
+     * - returns the shared stroke closest to width, with round or flat ends
+     * - strokes wider than MAX_STROKE_WIDTH (big outputs) aren't shared, each call makes a new one
+     */
+    static BasicStroke stroke(float width, boolean round) {
+        if (width > MAX_STROKE_WIDTH) {
+            return round ? new BasicStroke(width, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND) : new BasicStroke(width);
+        }
+        int i = Math.max(0, Math.min(Math.round(width/STROKE_STEP), STROKES.length-1));
+        return round ? ROUND_STROKES[i] : STROKES[i];
+    } // end of stroke() method
+
+    /**
+     * coreLevel():
+     * - turns an alpha from 0 to 1 into the white core's alpha level, 0 to 255
+     */
+    static int coreLevel(float alpha) {
+        return clamp((int)(alpha*255), 255);
+    }
+
+    /**
+     * glowLevel():
+     * - turns an alpha from 0 to 1 into the glow's alpha level, 0 to GLOW_ALPHA
+     */
+    static int glowLevel(float alpha) {
+        return clamp((int)(alpha*GLOW_ALPHA), GLOW_ALPHA);
+    }
+
+    /**
+     * core():
+     * - returns the white core color for an alpha level from coreLevel()
+     */
+    Color core(int level) {
+        return WHITE[level];
+    }
+
+    /**
+     * glow():
+     * - returns this firework's glow color for an alpha level from glowLevel()
+     */
+    Color glow(int level) {
+        return glowColors[level];
+    }
+
+    /**
+     * clamp():
+     * - keeps a color index inside 0 to max
+     */
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+} // end of TrailPalette class
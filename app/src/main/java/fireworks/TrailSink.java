@@ -0,0 +1,14 @@
+package fireworks;
+
+/**
+ * TrailSink interface:
+ * - somewhere FireworkScene can send trail segments: TrailBatch queues them for Java2D,
+ *   AdditiveCompositor adds them straight into its pixels
+ */
+interface TrailSink {
+    /**
+     * add():
+     * - segment j of a trail (0 at the tail), from (x1,y1) to (x2,y2), at an alpha from 0 to 1
+     */
+    void add(int j, int x1, int y1, int x2, int y2, float alpha);
+} // end of TrailSink interface
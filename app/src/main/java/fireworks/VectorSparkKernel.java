@@ -0,0 +1,65 @@
+package fireworks;
+
+import jdk.incubator.vector.DoubleVector; // several sparks' values in one register
+import jdk.incubator.vector.VectorSpecies; // how many lanes this CPU has
+
+/**
+ * VectorSparkKernel class:
+ * - steps whole lanes of sparks at once with the Vector API, e.g. 4 doubles per AVX2 register
+ * - trails are still recorded one spark at a time, since every spark's ring head is somewhere else
+ * - drag, wind, gravity, moving and aging are done as separate multiplies and adds, never fused,
+ *   so the results are bit-for-bit the same as the scalar kernel's
+ * - the sparks left over after the last full lane go through the scalar code
+ * - only loaded through SparkKernel.select(), and only when jdk.incubator.vector is there
+ */
+class VectorSparkKernel implements SparkKernel {
+    // the widest double vector the CPU runs well
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void update(SparkPool pool, int from, int to) {
+        // save current positions into the trails first, like sparkUpdate does
+        for (int i = from; i < to; i++) {
+            pool.trailUpdate(i);
+        }
+
+        double[] x = pool.x;
+        double[] y = pool.y;
+        double[] xVelocity = pool.xVelocity;
+        double[] yVelocity = pool.yVelocity;
+        double[] life = pool.life;
+        double drag = pool.drag;
+        double wind = pool.wind;
+
+        int i = from;
+        int lanesEnd = from + SPECIES.loopBound(to - from);
+        for (; i < lanesEnd; i += SPECIES.length()) {
+            // air resistance, then wind and gravity
+            DoubleVector vx = DoubleVector.fromArray(SPECIES, xVelocity, i).mul(drag).add(wind);
+            DoubleVector vy = DoubleVector.fromArray(SPECIES, yVelocity, i).mul(drag).add(SparkPool.GRAVITY);
+            vx.intoArray(xVelocity, i);
+            vy.intoArray(yVelocity, i);
+
+            // move, and fade out
+            DoubleVector.fromArray(SPECIES, x, i).add(vx).intoArray(x, i);
+            DoubleVector.fromArray(SPECIES, y, i).add(vy).intoArray(y, i);
+            DoubleVector.fromArray(SPECIES, life, i).sub(SparkPool.LIFE_STEP).intoArray(life, i);
+        }
+
+        // leftovers, same math one at a time
+        for (; i < to; i++) {
+            xVelocity[i]*=drag;
+            yVelocity[i]*=drag;
+            xVelocity[i]+=wind;
+            yVelocity[i]+=SparkPool.GRAVITY;
+            x[i]+=xVelocity[i];
+            y[i]+=yVelocity[i];
+            life[i]-=SparkPool.LIFE_STEP;
+        }
+    } // end of update() method
+
+    @Override
+    public String name() {
+        return "vector";
+    }
+} // end of VectorSparkKernel class
@@ -0,0 +1,151 @@
+package fireworks;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull; // a difference was found
+import static org.junit.jupiter.api.Assertions.assertNull; // no difference was found
+
+import java.io.BufferedReader; // reading the test show
+import java.io.IOException; // reading can fail, in theory
+import java.io.StringReader; // the test show is inline
+
+import java.util.Arrays; // comparing spark arrays
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * FireworkSimulationTest class:
+ * - the promises the simulation makes: the same seed plays exactly the same show, on any number of threads
+ * - the show has a shell bigger than SparkWorkers.CHUNK_SPARKS so it's split between threads,
+ *   plus wind, drag, crossette splits and a loop, so every part of a step is covered
+ */
+class FireworkSimulationTest {
+    // steps to compare; past the loop, so relaunched shells are covered too
+    static final int STEPS = 250;
+
+    static final String SHOW =
+            "wind 0.03\n"
+            + "loop 4\n"
+            + "0.1  100  -100  500  #B96443  right   peony   10000  split=3\n"
+            + "0.3  300  -50   450  #B46E8C  left    ring    3000   drag=0.97\n"
+            + "0.5  -50  0     480  #647D64  center  willow\n";
+
+    /**
+     * threadCountDoesNotMatter():
+     * - one thread and three threads give bit-for-bit the same state after every step
+     */
+    @Test
+    void threadCountDoesNotMatter() throws Exception {
+        Show show = show();
+        FireworkSimulation one = simulation(show, 1, 7);
+        FireworkSimulation three = simulation(show, 3, 7);
+        try {
+            FireworkSimulation.Snapshot a = one.newSnapshot();
+            FireworkSimulation.Snapshot b = three.newSnapshot();
+            for (int step = 1; step <= STEPS; step++) {
+                one.step();
+                three.step();
+                one.copyTo(a, 0);
+                three.copyTo(b, 0);
+                assertNull(difference(a, b), "step " + step);
+            }
+        }
+        finally {
+            one.stop();
+            three.stop();
+        }
+    } // end of threadCountDoesNotMatter() method
+
+    /**
+     * seedReplaysTheShow():
+     * - two simulations with the same seed end up in the same state, and one with another seed doesn't
+     */
+    @Test
+    void seedReplaysTheShow() throws Exception {
+        Show show = show();
+        FireworkSimulation first = simulation(show, 1, 42);
+        FireworkSimulation again = simulation(show, 1, 42);
+        FireworkSimulation other = simulation(show, 1, 43);
+        try {
+            first.advanceTo(STEPS);
+            again.advanceTo(STEPS);
+            other.advanceTo(STEPS);
+            FireworkSimulation.Snapshot a = first.newSnapshot();
+            FireworkSimulation.Snapshot b = again.newSnapshot();
+            FireworkSimulation.Snapshot c = other.newSnapshot();
+            first.copyTo(a, 0);
+            again.copyTo(b, 0);
+            other.copyTo(c, 0);
+            assertNull(difference(a, b));
+            assertNotNull(difference(a, c));
+        }
+        finally {
+            first.stop();
+            again.stop();
+            other.stop();
+        }
+    } // end of seedReplaysTheShow() method
+
+    /**
+     * show():
+     * - the test show
+     */
+    static Show show() throws IOException {
+        return Show.read(new BufferedReader(new StringReader(SHOW)), "test.show");
+    }
+
+    /**
+     * simulation():
+     * - a simulation of show on threads threads with bursts from seed, stepped by hand
+     */
+    static FireworkSimulation simulation(Show show, int threads, long seed) {
+        return new FireworkSimulation(show, show.maxSparks(), FireworkScene.TRAIL_LENGTH, threads, seed);
+    }
+
+    /**
+     * difference():
+     * - what differs between two snapshots, or null if they're the same
+     */
+    static String difference(FireworkSimulation.Snapshot a, FireworkSimulation.Snapshot b) {
+        if (a.frameCount != b.frameCount || a.shellCount != b.shellCount) {
+            return "frame " + a.frameCount + " with " + a.shellCount + " shells vs frame " + b.frameCount + " with " + b.shellCount;
+        }
+        for (int k = 0; k < a.shellCount; k++) {
+            Shell s = a.shells[k];
+            Shell t = b.shells[k];
+            if (s.firework != t.firework || s.pattern != t.pattern || s.launchStep != t.launchStep) {
+                return "shell " + k + " is a different launch";
+            }
+            String sparks = difference(s.sparks, t.sparks);
+            if (sparks != null) {
+                return "shell " + k + ": " + sparks;
+            }
+        }
+        return null;
+    } // end of difference() method
+
+    /**
+     * difference():
+     * - what differs between the live sparks of two pools, or null if they're the same
+     */
+    static String difference(SparkPool a, SparkPool b) {
+        int n = a.count;
+        if (n != b.count) {
+            return a.count + " sparks vs " + b.count;
+        }
+        int points = n*a.trailLength;
+        if (!Arrays.equals(a.x, 0, n, b.x, 0, n) || !Arrays.equals(a.y, 0, n, b.y, 0, n)) {
+            return "positions";
+        }
+        if (!Arrays.equals(a.xVelocity, 0, n, b.xVelocity, 0, n) || !Arrays.equals(a.yVelocity, 0, n, b.yVelocity, 0, n)) {
+            return "velocities";
+        }
+        if (!Arrays.equals(a.life, 0, n, b.life, 0, n) || !Arrays.equals(a.rgb, 0, n, b.rgb, 0, n)
+                || !Arrays.equals(a.generation, 0, n, b.generation, 0, n)) {
+            return "life, color or generation";
+        }
+        if (!Arrays.equals(a.trailX, 0, points, b.trailX, 0, points) || !Arrays.equals(a.trailY, 0, points, b.trailY, 0, points)
+                || !Arrays.equals(a.trailHead, 0, n, b.trailHead, 0, n)) {
+            return "trails";
+        }
+        return null;
+    } // end of difference() method
+} // end of FireworkSimulationTest class
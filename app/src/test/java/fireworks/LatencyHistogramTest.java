@@ -0,0 +1,79 @@
+package fireworks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals; // exact values
+import static org.junit.jupiter.api.Assertions.assertTrue; // bucket bounds
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * LatencyHistogramTest class:
+ * - percentiles come back exact below LINEAR_BUCKETS and at most 1/SUB_BUCKETS high above it, never low
+ */
+class LatencyHistogramTest {
+
+    /**
+     * emptyIsZero():
+     * - nothing recorded, every percentile is 0
+     */
+    @Test
+    void emptyIsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.valueAt(50));
+        assertEquals(0, histogram.valueAt(100));
+    }
+
+    /**
+     * smallValuesAreExact():
+     * - every value below LINEAR_BUCKETS has its own bucket; negative ones count as 0
+     */
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 0; value < LatencyHistogram.LINEAR_BUCKETS; value++) {
+            histogram.record(value);
+        }
+        assertEquals(0, histogram.valueAt(0));
+        assertEquals(63, histogram.valueAt(50));
+        assertEquals(LatencyHistogram.LINEAR_BUCKETS-1, histogram.valueAt(100));
+
+        LatencyHistogram negative = new LatencyHistogram();
+        negative.record(-5);
+        assertEquals(0, negative.valueAt(100));
+    } // end of smallValuesAreExact() method
+
+    /**
+     * bigValuesAreCloseAbove():
+     * - a value is reported as the top of its bucket, which is at most 1/64 above it
+     */
+    @Test
+    void bigValuesAreCloseAbove() {
+        long[] values = {128, 129, 1000, 12_345, 999_999, 33_000_000, 2_000_000_001L, (1L << 39) + 12_345};
+        for (long value : values) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(value*3); // so the max doesn't cap the answer
+            long reported = histogram.valueAt(50);
+            assertTrue(reported >= value && reported <= value + value/LatencyHistogram.SUB_BUCKETS,
+                    value + " reported as " + reported);
+        }
+    } // end of bigValuesAreCloseAbove() method
+
+    /**
+     * neverAboveMax():
+     * - the top percentile is the largest value recorded, even when its bucket goes higher;
+     *   values too big to tell apart count as the largest one it can (about 18 minutes)
+     */
+    @Test
+    void neverAboveMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+        assertEquals(1000, histogram.valueAt(100));
+
+        long huge = 1L << (LatencyHistogram.MAX_MAGNITUDE + 2);
+        histogram.record(huge);
+        long reported = histogram.valueAt(100);
+        assertTrue(reported >= 1L << LatencyHistogram.MAX_MAGNITUDE && reported < huge, "reported as " + reported);
+        assertEquals(huge, histogram.max());
+        assertEquals(2, histogram.count());
+    } // end of neverAboveMax() method
+} // end of LatencyHistogramTest class
@@ -0,0 +1,112 @@
+package fireworks;
+
+import static org.junit.jupiter.api.Assertions.assertSame; // levels are shared constants
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * QualityGovernorTest class:
+ * - the governor's hysteresis: down right away, up only after RAISE_WINDOWS calm windows in a row,
+ *   the window after a change thrown away, and a few slow frames ignored
+ */
+class QualityGovernorTest {
+    // budget every test uses: 10 ms
+    static final long BUDGET = 10_000_000L;
+
+    // paint times over budget, well under it, and close to it
+    static final long SLOW = BUDGET*2;
+    static final long CALM = BUDGET/4;
+    static final long CLOSE = BUDGET*8/10;
+
+    // where levels are
+    static final int FULL = QualityGovernor.LEVELS.length-1;
+
+    /**
+     * downRightAwayThenSettle():
+     * - one slow window drops a level; the window after it doesn't count, the one after that does
+     */
+    @Test
+    void downRightAwayThenSettle() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        assertSame(QualityGovernor.LEVELS[FULL], governor.level());
+
+        window(governor, SLOW);
+        assertSame(QualityGovernor.LEVELS[FULL-1], governor.level());
+        window(governor, SLOW); // settling
+        assertSame(QualityGovernor.LEVELS[FULL-1], governor.level());
+        window(governor, SLOW);
+        assertSame(QualityGovernor.LEVELS[FULL-2], governor.level());
+    } // end of downRightAwayThenSettle() method
+
+    /**
+     * upOnlyWhenCalmLongEnough():
+     * - RAISE_WINDOWS calm windows in a row raise a level; a window close to budget starts the count over
+     */
+    @Test
+    void upOnlyWhenCalmLongEnough() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        window(governor, SLOW);
+        window(governor, CALM); // settling
+        int down = FULL-1;
+
+        for (int w = 1; w < QualityGovernor.RAISE_WINDOWS; w++) {
+            window(governor, CALM);
+        }
+        window(governor, CLOSE); // not calm, not slow: stays, and the count starts over
+        assertSame(QualityGovernor.LEVELS[down], governor.level());
+
+        for (int w = 1; w < QualityGovernor.RAISE_WINDOWS; w++) {
+            window(governor, CALM);
+            assertSame(QualityGovernor.LEVELS[down], governor.level());
+        }
+        window(governor, CALM);
+        assertSame(QualityGovernor.LEVELS[FULL], governor.level());
+    } // end of upOnlyWhenCalmLongEnough() method
+
+    /**
+     * fewSlowFramesDontCount():
+     * - the 90th percentile decides, so fewer than a tenth of a window's frames being slow changes nothing
+     */
+    @Test
+    void fewSlowFramesDontCount() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        int slowFrames = QualityGovernor.WINDOW_FRAMES/10 - 1;
+        for (int i = 0; i < QualityGovernor.WINDOW_FRAMES; i++) {
+            governor.frameDone(i < slowFrames ? SLOW : CLOSE);
+        }
+        assertSame(QualityGovernor.LEVELS[FULL], governor.level());
+
+        for (int i = 0; i < QualityGovernor.WINDOW_FRAMES; i++) {
+            governor.frameDone(i <= slowFrames ? SLOW : CLOSE); // one more and it's the 90th percentile
+        }
+        assertSame(QualityGovernor.LEVELS[FULL-1], governor.level());
+    } // end of fewSlowFramesDontCount() method
+
+    /**
+     * neverPastTheEnds():
+     * - levels stop at the lowest and at full
+     */
+    @Test
+    void neverPastTheEnds() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        for (int w = 0; w < 4*QualityGovernor.LEVELS.length; w++) {
+            window(governor, SLOW);
+        }
+        assertSame(QualityGovernor.LEVELS[0], governor.level());
+
+        for (int w = 0; w < 4*QualityGovernor.LEVELS.length*QualityGovernor.RAISE_WINDOWS; w++) {
+            window(governor, CALM);
+        }
+        assertSame(QualityGovernor.LEVELS[FULL], governor.level());
+    } // end of neverPastTheEnds() method
+
+    /**
+     * window():
+     * - a whole window of frames that each took paintNanos
+     */
+    private static void window(QualityGovernor governor, long paintNanos) {
+        for (int i = 0; i < QualityGovernor.WINDOW_FRAMES; i++) {
+            governor.frameDone(paintNanos);
+        }
+    }
+} // end of QualityGovernorTest class
@@ -0,0 +1,91 @@
+package fireworks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals; // parsed values
+import static org.junit.jupiter.api.Assertions.assertThrows; // bad lines
+import static org.junit.jupiter.api.Assertions.assertTrue; // error messages
+
+import java.io.BufferedReader; // reading a show
+import java.io.IOException; // reading can fail, in theory
+import java.io.StringReader; // shows are inline
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ShowTest class:
+ * - reading timelines: what a good one turns into, and that a bad line says where it is and what's wrong
+ */
+class ShowTest {
+    // a launch line that's fine, for building bad shows around
+    static final String GOOD = "0.5  300  -200  700  #B96443  right  peony";
+
+    /**
+     * readsEveryOption():
+     * - loop, wind, sparks, drag and split all end up in the show
+     */
+    @Test
+    void readsEveryOption() throws IOException {
+        Show show = read("# comment\n\nloop 3\nwind -0.02\n" + GOOD + " 900 drag=0.95 split=4\n0.1 0 0 400 #647D64 center ring\n");
+        assertEquals(Show.step(3), show.loopSteps);
+        assertEquals(-0.02, show.wind);
+        assertEquals(2, show.launches.size());
+
+        Show.Launch first = show.launches.get(0); // sorted by time, the ring goes first
+        assertEquals(BurstPattern.RING, first.pattern);
+        assertEquals(Show.step(0.1), first.step);
+        assertEquals(SparkPool.DRAG, first.drag);
+        assertEquals(0, first.splits);
+
+        Show.Launch second = show.launches.get(1);
+        assertEquals(900, second.sparks);
+        assertEquals(0.95, second.drag);
+        assertEquals(4, second.splits);
+        assertEquals(900, show.maxSparks());
+    } // end of readsEveryOption() method
+
+    /**
+     * badLinesSayWhere():
+     * - every kind of bad line is an IllegalArgumentException naming the file, the line and the problem
+     */
+    @Test
+    void badLinesSayWhere() {
+        assertBad(GOOD + "\n0.5 300 -200 700 #B96443 right", "test.show:2:", "expected:");
+        assertBad(GOOD + "\n0.5 300 -200 700 B96443 right peony", "test.show:2:", "#rrggbb");
+        assertBad("0.5 300 -200 700 #B96443 up peony", "test.show:1:", "left, right or center");
+        assertBad("-1 300 -200 700 #B96443 right peony", "test.show:1:", "can't be negative");
+        assertBad("0.5 300 -200 0 #B96443 right peony", "test.show:1:", "size has to be positive");
+        assertBad(GOOD + " 0", "test.show:1:", "sparks has to be positive");
+        assertBad(GOOD + " drag=1.5", "test.show:1:", "drag");
+        assertBad(GOOD + " split=9", "test.show:1:", "split");
+        assertBad(GOOD + " 900 glitter=2", "test.show:1:", "unknown launch option");
+        assertBad("loop", "test.show:1:", "loop SECONDS");
+        assertBad("wind east", "test.show:1:", "east");
+        assertBad("0.5 300 x 700 #B96443 right peony", "test.show:1:", "\"x\"");
+    } // end of badLinesSayWhere() method
+
+    /**
+     * launchesFitInTheLoop():
+     * - a launch at or after the loop point can't ever go off the way it's written
+     */
+    @Test
+    void launchesFitInTheLoop() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> read("loop 0.4\n" + GOOD + "\n"));
+        assertTrue(e.getMessage().contains("before the loop"), e.getMessage());
+    } // end of launchesFitInTheLoop() method
+
+    /**
+     * read():
+     * - a show from text
+     */
+    private static Show read(String text) throws IOException {
+        return Show.read(new BufferedReader(new StringReader(text)), "test.show");
+    }
+
+    /**
+     * assertBad():
+     * - text doesn't read, with an error that starts with where and mentions what
+     */
+    private static void assertBad(String text, String where, String what) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> read(text), text);
+        assertTrue(e.getMessage().startsWith(where) && e.getMessage().contains(what), e.getMessage());
+    } // end of assertBad() method
+} // end of ShowTest class
@@ -0,0 +1,56 @@
+package fireworks;
+
+import static org.junit.jupiter.api.Assertions.assertNull; // no difference was found
+import static org.junit.jupiter.api.Assertions.assertTrue; // the show got going
+import static org.junit.jupiter.api.Assumptions.assumeTrue; // only with the Vector API
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * SparkKernelTest class:
+ * - the vector kernel moves every spark exactly like the scalar one, so which one runs never changes the show
+ * - needs the Vector API (surefire adds --add-modules jdk.incubator.vector); skipped without it
+ */
+class SparkKernelTest {
+    // steps each copy of the shells is moved
+    static final int STEPS = 60;
+
+    /**
+     * vectorMatchesScalar():
+     * - copies every shell of a busy moment of the test show twice and steps one copy with each kernel
+     */
+    @Test
+    void vectorMatchesScalar() throws Exception {
+        SparkKernel scalar = SparkKernel.select("scalar");
+        SparkKernel vector = SparkKernel.select("vector");
+        assumeTrue("vector".equals(vector.name()), "the Vector API isn't available");
+
+        Show show = FireworkSimulationTest.show();
+        FireworkSimulation simulation = FireworkSimulationTest.simulation(show, 1, 7);
+        FireworkSimulation.Snapshot snapshot = simulation.newSnapshot();
+        try {
+            simulation.advanceTo(30);
+            simulation.copyTo(snapshot, 0);
+        }
+        finally {
+            simulation.stop();
+        }
+        assertTrue(snapshot.sparkCount() > SparkWorkers.CHUNK_SPARKS);
+
+        for (int k = 0; k < snapshot.shellCount; k++) {
+            Shell a = new Shell(snapshot.sparksPerShell, snapshot.trailLength);
+            Shell b = new Shell(snapshot.sparksPerShell, snapshot.trailLength);
+            a.copyFrom(snapshot.shells[k]);
+            b.copyFrom(snapshot.shells[k]);
+            a.sparks.configure(a.sparks.drag, a.sparks.wind, a.sparks.splits); // copies are only for drawing,
+            b.sparks.configure(b.sparks.drag, b.sparks.wind, b.sparks.splits); // these ones need room for splits
+            for (int step = 1; step <= STEPS; step++) {
+                scalar.update(a.sparks, 0, a.sparks.count);
+                vector.update(b.sparks, 0, b.sparks.count);
+                a.sparks.removeDead(null);
+                b.sparks.removeDead(null);
+                assertNull(FireworkSimulationTest.difference(a.sparks, b.sparks), "shell " + k + ", step " + step);
+            }
+        }
+    } // end of vectorMatchesScalar() method
+} // end of SparkKernelTest class
@@ -0,0 +1,49 @@
+package fireworks;
+
+import java.util.SplittableRandom; // the bursts' random numbers
+
+/**
+ * BenchmarkSparks class:
+ * - builds spark pools in the middle of a burst for the benchmarks to work on
+ * - sparks come from the simulation's own burst(), so they spread out like they do on screen
+ * - fireworks come from the built-in show, so they match what the window draws
+ * - every burst is seeded with SEED, so every run and every fork measures the same sparks
+ */
+class BenchmarkSparks {
+    // steps taken after the burst, so trails are spread out and sparks are about a third of the way through their life
+    static final int AGE = 20;
+
+    // seed for every burst the benchmarks make
+    static final long SEED = 42;
+
+    // the built-in show's fireworks: yellow (right), pink (left), green (center)
+    static final Firework[] FIREWORKS = fireworks();
+
+    /**
+     * fireworks():
+     * - one of each firework in the built-in show, in launch order
+     */
+    private static Firework[] fireworks() {
+        Show show = Show.defaultShow();
+        Firework[] fireworks = new Firework[show.launches.size()];
+        for (int i = 0; i < fireworks.length; i++) {
+            fireworks[i] = show.launches.get(i).firework;
+        }
+        return fireworks;
+    } // end of fireworks() method
+
+    /**
+     * burst():
+     * - a pool holding sparks sparks of one burst of firework, each remembering trailLength points, AGE steps in
+     */
+    static SparkPool burst(FireworkSimulation simulation, Firework firework, int sparks, int trailLength) {
+        SparkPool pool = new SparkPool(sparks, trailLength);
+        simulation.burst(firework, BurstPattern.PEONY, pool, sparks, new SplittableRandom(SEED));
+        for (int step = 0; step < AGE; step++) {
+            for (int i = 0; i < pool.count; i++) {
+                pool.sparkUpdate(i);
+            }
+        }
+        return pool;
+    } // end of burst() method
+} // end of BenchmarkSparks class
@@ -0,0 +1,30 @@
+package fireworks;
+
+import org.openjdk.jmh.profile.GCProfiler; // allocation rate of every benchmark
+import org.openjdk.jmh.runner.Runner; // runs the benchmarks
+import org.openjdk.jmh.runner.RunnerException; // a benchmark failed
+import org.openjdk.jmh.runner.options.CommandLineOptionException; // bad option
+import org.openjdk.jmh.runner.options.CommandLineOptions; // the usual JMH options
+import org.openjdk.jmh.runner.options.Options; // what to run and how
+import org.openjdk.jmh.runner.options.OptionsBuilder; // adding the GC profiler
+
+/**
+ * Benchmarks class:
+ * - entry point of benchmarks.jar; same options as JMH's own main (-h lists them)
+ * - always adds the GC profiler, so every result comes with gc.alloc.rate.norm (bytes per operation)
+ *
+ * e.g. java -jar benchmarks/target/benchmarks.jar Spark -p sparks=480
+ */
+public class Benchmarks {
+    /**
+     * main() method:
+     * - runs the benchmarks picked on the command line, or all of them
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    } // end of main() method
+} // end of Benchmarks class
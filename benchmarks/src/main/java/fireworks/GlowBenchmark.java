@@ -0,0 +1,77 @@
+package fireworks;
+
+import java.awt.Graphics2D; // drawing
+import java.awt.RenderingHints; // smoother graphics
+import java.awt.image.BufferedImage; // headless target
+
+import java.util.concurrent.TimeUnit; // reporting unit
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * GlowBenchmark class:
+ * - times drawing the three fireworks' glow rings directly against blitting their baked sprites
+ * - draws into a headless BufferedImage with antialiasing on
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class GlowBenchmark {
+    // the built-in show's three fireworks
+    private Firework[] fireworks;
+    private GlowSpriteCache sprites;
+    private BufferedImage image;
+    private Graphics2D g2;
+
+    @Setup
+    public void setup() {
+        fireworks = BenchmarkSparks.FIREWORKS;
+        sprites = new GlowSpriteCache();
+
+        image = new BufferedImage(FireworkScene.WIDTH, FireworkScene.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2 = image.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    } // end of setup() method
+
+    @TearDown
+    public void tearDown() {
+        g2.dispose();
+    }
+
+    /**
+     * rings():
+     * - draws every glow ring of all three fireworks
+     */
+    @Benchmark
+    public void rings() {
+        for (Firework firework : fireworks) {
+            Graphics2D ring = (Graphics2D) g2.create(firework.x, firework.y, firework.width, firework.height);
+            firework.drawGlowRings(ring);
+            ring.dispose();
+        }
+    } // end of rings() method
+
+    /**
+     * sprites():
+     * - copies all three baked glows, baking them on the first call
+     */
+    @Benchmark
+    public void sprites() {
+        for (Firework firework : fireworks) {
+            g2.drawImage(sprites.sprite(firework, null), firework.x, firework.y, null);
+        }
+    } // end of sprites() method
+} // end of GlowBenchmark class
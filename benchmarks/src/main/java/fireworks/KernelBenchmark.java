@@ -0,0 +1,68 @@
+package fireworks;
+
+import java.util.concurrent.TimeUnit; // reporting unit
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * KernelBenchmark class:
+ * - the scalar and vector spark kernels on one big pool, up to finale sizes
+ * - each operation steps every spark once, trails included, so divide by sparks for the cost per spark
+ * - the fork adds the Vector API module; without it the vector runs quietly measure the scalar kernel
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class KernelBenchmark {
+    // which kernel steps the sparks
+    @Param({"scalar", "vector"})
+    String kernel;
+
+    // sparks in the pool
+    @Param({"480", "20000", "200000"})
+    int sparks;
+
+    // points each spark's trail remembers
+    @Param({"20"})
+    int trailLength;
+
+    private SparkKernel sparkKernel;
+    private SparkPool pool;
+
+    /**
+     * setup():
+     * - one huge burst of the big yellow firework; its sparks live long enough that none die during the run
+     */
+    @Setup
+    public void setup() {
+        sparkKernel = SparkKernel.select(kernel);
+        FireworkSimulation simulation = new FireworkScene(trailLength).newSimulation();
+        pool = BenchmarkSparks.burst(simulation, BenchmarkSparks.FIREWORKS[0], sparks, trailLength);
+        for (int i = 0; i < pool.count; i++) {
+            pool.life[i] = 1e12;
+        }
+    } // end of setup() method
+
+    /**
+     * update():
+     * - one step of every spark
+     */
+    @Benchmark
+    public SparkPool update() {
+        sparkKernel.update(pool, 0, pool.count);
+        return pool;
+    } // end of update() method
+} // end of KernelBenchmark class
@@ -0,0 +1,115 @@
+package fireworks;
+
+import java.awt.Graphics2D; // drawing the scene
+import java.awt.GraphicsConfiguration; // making the volatile target
+import java.awt.image.BufferedImage; // headless target
+import java.awt.image.VolatileImage; // what active rendering draws into
+
+import java.util.List; // empty show
+import java.util.concurrent.TimeUnit; // reporting unit
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ScenePaintBenchmark class:
+ * - one whole frame, as the window's paintComponent draws it: background, glows, every firework's
+ *   sparks and the silhouettes, into a headless BufferedImage
+ * - or into a VolatileImage, drawn the way FireworkCanvas draws its back buffer: new graphics every frame,
+ *   redrawn if the contents are lost; headless it isn't accelerated, but the active rendering path still runs
+ * - or with glows and sparks added up by the AdditiveCompositor, then drawn into the BufferedImage,
+ *   with or without the spark glows done by a Bloom pass
+ * - each of the built-in show's three fireworks is partway through a burst of sparks sparks at once
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ScenePaintBenchmark {
+    // sparks per firework
+    @Param({"100", "480"})
+    int sparks;
+
+    // points in each spark's trail, same for every firework
+    @Param({"10", "20", "40"})
+    int trailLength;
+
+    // what the frame is drawn into: image (BufferedImage), volatile (VolatileImage),
+    // additive (compositor, then image) or bloom (compositor with bloom, then image)
+    @Param({"image", "volatile", "additive", "bloom"})
+    String target;
+
+    private FireworkScene scene;
+    private FireworkSimulation.Snapshot frame;
+    private BufferedImage image;
+    private Graphics2D g2;
+    private GraphicsConfiguration gc;
+    private VolatileImage volatileImage;
+
+    /**
+     * setup():
+     * - a snapshot with one burst per firework, and the scene's cached layers already made
+     */
+    @Setup
+    public void setup() {
+        boolean bloom = "bloom".equals(target);
+        scene = new FireworkScene(trailLength, bloom || "additive".equals(target), bloom);
+
+        // launch the three by hand on an empty show, and let them spread out
+        FireworkSimulation simulation = new FireworkSimulation(new Show(List.of(), 0), sparks, trailLength);
+        for (int i = 0; i < BenchmarkSparks.FIREWORKS.length; i++) {
+            simulation.launch(BenchmarkSparks.FIREWORKS[i], BurstPattern.PEONY, sparks, BenchmarkSparks.SEED + i);
+        }
+        simulation.advanceTo(BenchmarkSparks.AGE);
+        frame = simulation.newSnapshot();
+        simulation.copyTo(frame, 0);
+
+        image = new BufferedImage(FireworkScene.WIDTH, FireworkScene.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2 = image.createGraphics();
+        if ("volatile".equals(target)) {
+            gc = g2.getDeviceConfiguration();
+            volatileImage = gc.createCompatibleVolatileImage(FireworkScene.WIDTH, FireworkScene.HEIGHT);
+        }
+    } // end of setup() method
+
+    @TearDown
+    public void tearDown() {
+        g2.dispose();
+    }
+
+    /**
+     * paint():
+     * - draws the whole picture halfway between two steps
+     */
+    @Benchmark
+    public void paint() {
+        if (volatileImage == null) {
+            scene.paint(g2, frame, 0.5, null, FireworkScene.WIDTH, FireworkScene.HEIGHT);
+            return;
+        }
+        do {
+            if (volatileImage.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                volatileImage = gc.createCompatibleVolatileImage(FireworkScene.WIDTH, FireworkScene.HEIGHT);
+            }
+            Graphics2D g = volatileImage.createGraphics();
+            try {
+                scene.paint(g, frame, 0.5, gc, FireworkScene.WIDTH, FireworkScene.HEIGHT);
+            }
+            finally {
+                g.dispose();
+            }
+        } while (volatileImage.contentsLost());
+    } // end of paint() method
+} // end of ScenePaintBenchmark class
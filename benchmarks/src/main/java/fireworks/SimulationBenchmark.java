@@ -0,0 +1,72 @@
+package fireworks;
+
+import java.util.ArrayList; // building the show
+import java.util.List; // the show's launches
+import java.util.concurrent.TimeUnit; // reporting unit
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SimulationBenchmark class:
+ * - whole simulation steps of a big looping finale, on one or more threads
+ * - a shell of the three built-in fireworks goes off every other step, so about 40 shells are always burning
+ *   and launches, retirements and dead sparks are all part of each step
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class SimulationBenchmark {
+    // threads stepping sparks
+    @Param({"1", "2", "4"})
+    int threads;
+
+    // sparks in each shell
+    @Param({"480", "5000"})
+    int sparks;
+
+    private FireworkSimulation simulation;
+
+    /**
+     * setup():
+     * - the finale, already running long enough that shells are retiring as fast as they launch
+     */
+    @Setup
+    public void setup() {
+        List<Show.Launch> launches = new ArrayList<>();
+        for (int step = 0; step < Shell.LIFETIME; step += 2) {
+            Firework firework = BenchmarkSparks.FIREWORKS[launches.size() % BenchmarkSparks.FIREWORKS.length];
+            launches.add(new Show.Launch(step, firework, BurstPattern.PEONY, sparks, launches.size()));
+        }
+        simulation = new FireworkSimulation(new Show(launches, Shell.LIFETIME), sparks, FireworkScene.TRAIL_LENGTH, threads, BenchmarkSparks.SEED);
+        simulation.advanceTo(2*Shell.LIFETIME);
+    } // end of setup() method
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        simulation.stop(); // ends the spark worker threads
+    }
+
+    /**
+     * step():
+     * - one simulation step
+     */
+    @Benchmark
+    public FireworkSimulation step() {
+        simulation.step();
+        return simulation;
+    } // end of step() method
+} // end of SimulationBenchmark class
@@ -0,0 +1,90 @@
+package fireworks;
+
+import java.util.SplittableRandom; // the bursts' random numbers
+import java.util.concurrent.TimeUnit; // reporting unit
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SparkBenchmark class:
+ * - the simulation's per-spark work: physics (sparkUpdate), trail recording (trailUpdate) and bursts
+ * - each operation handles every spark of one pool once, so divide by sparks for the cost per spark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class SparkBenchmark {
+    // sparks in the pool
+    @Param({"100", "480", "2000"})
+    int sparks;
+
+    // points each spark's trail remembers
+    @Param({"10", "20", "40"})
+    int trailLength;
+
+    private FireworkSimulation simulation;
+    private Firework firework;
+    private SparkPool pool;
+    private SplittableRandom random;
+
+    /**
+     * setup():
+     * - one burst of the big yellow firework
+     */
+    @Setup
+    public void setup() {
+        simulation = new FireworkScene(trailLength).newSimulation();
+        firework = BenchmarkSparks.FIREWORKS[0];
+        pool = BenchmarkSparks.burst(simulation, firework, sparks, trailLength);
+        random = new SplittableRandom(BenchmarkSparks.SEED);
+    } // end of setup() method
+
+    /**
+     * sparkUpdate():
+     * - one step of every spark; dead sparks get their life back so the pool never empties
+     */
+    @Benchmark
+    public void sparkUpdate() {
+        for (int i = 0; i < pool.count; i++) {
+            pool.sparkUpdate(i);
+            if (pool.isDead(i)) {
+                pool.life[i] = SparkPool.START_LIFE;
+            }
+        }
+    } // end of sparkUpdate() method
+
+    /**
+     * trailUpdate():
+     * - records every spark's position into its trail
+     */
+    @Benchmark
+    public void trailUpdate() {
+        for (int i = 0; i < pool.count; i++) {
+            pool.trailUpdate(i);
+        }
+    } // end of trailUpdate() method
+
+    /**
+     * burst():
+     * - empties the pool and fills it with a new explosion; each one is different, but every run makes the same ones
+     */
+    @Benchmark
+    public SparkPool burst() {
+        pool.clear();
+        simulation.burst(firework, BurstPattern.PEONY, pool, sparks, random);
+        return pool;
+    } // end of burst() method
+} // end of SparkBenchmark class
@@ -0,0 +1,77 @@
+package fireworks;
+
+import java.awt.Graphics2D; // drawing the trails
+import java.awt.RenderingHints; // same antialiasing as the scene
+import java.awt.image.BufferedImage; // headless target
+
+import java.util.concurrent.TimeUnit; // reporting unit
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TrailBenchmark class:
+ * - the trail draw loop of one firework (FireworkScene.fireworkSparks): interpolating, batching and drawing
+ * - draws into a headless BufferedImage with antialiasing on, like the exporter
+ * - add -jvmArgsAppend -Dfireworks.trailPaths=true to time the Path2D batches instead of line runs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class TrailBenchmark {
+    // sparks being drawn
+    @Param({"100", "480"})
+    int sparks;
+
+    // points in each spark's trail
+    @Param({"10", "20", "40"})
+    int trailLength;
+
+    private FireworkScene scene;
+    private SparkPool pool;
+    private TrailBatch trails;
+    private BufferedImage image;
+    private Graphics2D g2;
+
+    /**
+     * setup():
+     * - one burst of the big yellow firework, partway through, with a matching trail batch
+     */
+    @Setup
+    public void setup() {
+        scene = new FireworkScene(trailLength);
+        pool = BenchmarkSparks.burst(scene.newSimulation(), BenchmarkSparks.FIREWORKS[0], sparks, trailLength);
+        trails = new TrailBatch(new TrailPalette(trailLength, 240, 220, 130));
+
+        image = new BufferedImage(FireworkScene.WIDTH, FireworkScene.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2 = image.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    } // end of setup() method
+
+    @TearDown
+    public void tearDown() {
+        g2.dispose();
+    }
+
+    /**
+     * draw():
+     * - draws every spark's trail halfway between two steps
+     */
+    @Benchmark
+    public void draw() {
+        scene.fireworkSparks(g2, pool, trails, 0.5);
+    } // end of draw() method
+} // end of TrailBenchmark class